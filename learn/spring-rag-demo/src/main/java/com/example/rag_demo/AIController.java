@@ -1,8 +1,10 @@
 package com.example.rag_demo;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
@@ -17,4 +19,9 @@ class AIController {
     public Map chat(@RequestParam(name = "query") String query) {
         return Map.of("answer", chatService.chat(query));
     }
+
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> chatStream(@RequestParam(name = "query") String query) {
+        return chatService.chatStream(query);
+    }
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package com.yellowbrick.springai.controllers;
 
 import com.yellowbrick.springai.service.ChatService;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
@@ -31,4 +33,9 @@ class AIController {
     public Map chat(@RequestParam(name = "query") String query) {
         return Map.of("answer", chatBotService.chat(query));
     }
+
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> chatStream(@RequestParam(name = "query") String query) {
+        return chatBotService.chatStream(query);
+    }
 }
\ No newline at end of file
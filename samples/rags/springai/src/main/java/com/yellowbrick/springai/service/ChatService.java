@@ -1,12 +1,14 @@
 package com.yellowbrick.springai.service;
 
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 @Service
@@ -18,7 +20,7 @@ public class ChatService {
 
     private ChatModel chatClient;
      @Autowired
-    private VectorStore vectorStore;
+    private YellowBrickVectorStore vectorStore;
     private final String PROMPT_BLUEPRINT = """
         Answer the query like Robert Dinero strictly referring the provided context:
         {context}
@@ -32,6 +34,20 @@ public class ChatService {
         return chatClient.call(createPrompt(query, searchData(query)));
     }
 
+    /**
+     * Stream the answer token by token. The search results are streamed from the vector store and the
+     * model is called as soon as the last of them arrives, without blocking a request thread on either.
+     * The model cannot start any earlier: the prompt is sent once, with the whole context, and the search
+     * ranks the full top-K in the warehouse before its first row arrives, so the last result follows the
+     * first within the same fetch. A client that disconnects cancels the search and no more rows are read.
+     */
+    public Flux<String> chatStream(String query) {
+        return vectorStore.streamSimilaritySearch(SearchRequest.query(query))
+                // the prompt needs every context document before the model can be called
+                .collectList()
+                .flatMapMany(context -> chatClient.stream(createPrompt(query, context)));
+    }
+
     private String createPrompt(String query, List<Document> context) {
         PromptTemplate promptTemplate = new PromptTemplate(PROMPT_BLUEPRINT);
         promptTemplate.add("query", query);
@@ -0,0 +1,15 @@
+package com.yellowbrick.springai.service;
+
+import com.yellowbrick.springai.reader.CorpusIndexerHealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the progress of the background load as part of the readiness group.
+ */
+@Component
+public class DataLoaderHealthIndicator extends CorpusIndexerHealthIndicator {
+
+    public DataLoaderHealthIndicator(DataLoaderService dataLoaderService) {
+        super(dataLoaderService.getIndexer());
+    }
+}
@@ -1,40 +1,49 @@
 package com.yellowbrick.springai.service;
 
-import jakarta.annotation.PostConstruct;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.ai.reader.ExtractedTextFormatter;
-import org.springframework.ai.reader.pdf.config.PdfDocumentReaderConfig;
-import org.springframework.ai.transformer.splitter.TokenTextSplitter;
-import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.yellowbrick.springai.reader.CorpusIndexer;
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.ai.reader.pdf.PagePdfDocumentReader;
 
 @Service
 public class DataLoaderService {
-    private static final Logger logger = LoggerFactory.getLogger(DataLoaderService.class);
 
-    @Value("classpath:/data/Employee_Handbook.pdf")
-    private Resource pdfResource;
+    private final CorpusIndexer indexer;
 
-    @Autowired
-    private VectorStore vectorStore;
+    private final ResourcePatternResolver resourcePatternResolver;
 
-    @PostConstruct
+    private final String corpusLocation;
+
+    /**
+     * @param corpusLocation the files to index; PDF, text and markdown files are loaded, anything else is ignored
+     * @param parallelism    the number of files read and split at the same time; 0 uses one per processor
+     * @param queueCapacity  the number of split pages or files of one file that may wait for the vector store
+     */
+    public DataLoaderService(YellowBrickVectorStore vectorStore, ResourcePatternResolver resourcePatternResolver,
+                             @Value("${app.corpus.location:classpath:/data/*}") String corpusLocation,
+                             @Value("${app.corpus.parallelism:0}") int parallelism,
+                             @Value("${app.corpus.queue-capacity:16}") int queueCapacity) {
+        this.indexer = new CorpusIndexer(vectorStore, parallelism, queueCapacity);
+        this.resourcePatternResolver = resourcePatternResolver;
+        this.corpusLocation = corpusLocation;
+    }
+
+    /**
+     * Index the corpus in the background once the application is up, so that it serves requests from
+     * the previous index meanwhile.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void load() {
-        PagePdfDocumentReader pdfReader = new PagePdfDocumentReader(this.pdfResource,
-                PdfDocumentReaderConfig.builder()
-                        .withPageExtractedTextFormatter(ExtractedTextFormatter.builder()
-                                .withNumberOfBottomTextLinesToDelete(3)
-                                .withNumberOfTopPagesToSkipBeforeDelete(1)
-                                .build())
-                        .withPagesPerDocument(1)
-                        .build());
-        var tokenTextSplitter = new TokenTextSplitter();
-        this.vectorStore.accept(tokenTextSplitter.apply(pdfReader.get()));
+        this.indexer.load(this.resourcePatternResolver, this.corpusLocation);
+    }
+
+    public CorpusIndexer getIndexer() {
+        return this.indexer;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to answer a batch of queries with one {@code batchSimilaritySearch} against a loop of
+ * {@code similaritySearch} calls, one scan of the vector table against one per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchSearchBenchmark {
+
+    private static final String TABLE_NAME = "bench_batch_search";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Param({"1", "8", "32"})
+    public int queries;
+
+    @Param({"100000"})
+    public int corpusSize;
+
+    @Param({"384", "1536"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+        this.database.truncate(TABLE_NAME);
+        Corpus.load(this.vectorStore, this.corpusSize, LOAD_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<List<Document>> loop() {
+        List<List<Document>> results = new ArrayList<>(this.queries);
+        for (SearchRequest request : requests()) {
+            results.add(this.vectorStore.similaritySearch(request));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<List<Document>> batch() {
+        return this.vectorStore.batchSimilaritySearch(requests());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    private List<SearchRequest> requests() {
+        List<SearchRequest> requests = new ArrayList<>(this.queries);
+        for (int q = 0; q < this.queries; q++) {
+            requests.add(SearchRequest.query(Corpus.query(this.seed++)));
+        }
+        return requests;
+    }
+}
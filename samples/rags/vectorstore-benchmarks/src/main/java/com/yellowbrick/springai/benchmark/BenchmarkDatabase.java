@@ -0,0 +1,77 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Connection to the warehouse the benchmarks run against, configured through the
+ * {@code yb.url}, {@code yb.user} and {@code yb.password} system properties.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public BenchmarkDatabase() {
+        this(config -> {
+        });
+    }
+
+    /**
+     * @param customizer adjusts the pool configuration before the pool starts
+     */
+    public BenchmarkDatabase(Consumer<HikariConfig> customizer) {
+        String url = System.getProperty("yb.url");
+        if (url == null || url.isEmpty()) {
+            throw new IllegalStateException("Set -Dyb.url=jdbc:postgresql://host:5432/db to point the benchmarks at a Yellowbrick database");
+        }
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("yb.user"));
+        config.setPassword(System.getProperty("yb.password"));
+        config.setMaximumPoolSize(4);
+        customizer.accept(config);
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.transactionManager = new DataSourceTransactionManager(this.dataSource);
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return this.jdbcTemplate;
+    }
+
+    public PlatformTransactionManager getTransactionManager() {
+        return this.transactionManager;
+    }
+
+    public void truncate(String vectorTableName) {
+        this.jdbcTemplate.execute("TRUNCATE TABLE " + vectorTableName);
+        this.jdbcTemplate.execute("TRUNCATE TABLE " + vectorTableName + "_content");
+    }
+
+    public long count(String tableName) {
+        Long count = this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Doc_ids of {@code count} random documents of the store.
+     */
+    public List<String> sampleDocIds(String vectorTableName, int count) {
+        return this.jdbcTemplate.queryForList("SELECT doc_id FROM " + vectorTableName + "_content ORDER BY RANDOM() LIMIT " + count, String.class);
+    }
+
+    @Override
+    public void close() {
+        this.dataSource.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates handbook-like chunks so that every benchmark works on the same synthetic corpus. Each chunk
+ * belongs to one of {@link #TOPICS} topics and draws most of its words from that topic's vocabulary, so
+ * that, embedded with {@link FakeEmbeddingModel}, the corpus has the cluster structure of real text.
+ */
+public final class Corpus {
+
+    public static final int TOPICS = 64;
+
+    private static final int WORDS_PER_TOPIC = 24;
+
+    private static final String[] WORDS = {"employee", "leave", "policy", "benefits", "manager", "payroll",
+            "holiday", "remote", "travel", "expense", "security", "training", "review", "overtime", "conduct"};
+
+    private Corpus() {
+    }
+
+    public static List<Document> documents(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int topic = random.nextInt(TOPICS);
+            documents.add(new Document(sentence(random, topic, 80), Map.of("source", "benchmark", "topic", topic, "page_number", i % 500)));
+        }
+        return documents;
+    }
+
+    /**
+     * Fill the store with {@code size} chunks, {@code batchSize} per {@code add} call, each batch seeded by
+     * its offset so that every chunk is different.
+     */
+    public static void load(YellowBrickVectorStore vectorStore, int size, int batchSize) {
+        for (int loaded = 0; loaded < size; loaded += batchSize) {
+            vectorStore.add(documents(Math.min(batchSize, size - loaded), loaded));
+        }
+    }
+
+    public static String query(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return sentence(random, random.nextInt(TOPICS), 12);
+    }
+
+    private static String sentence(SplittableRandom random, int topic, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            if (random.nextInt(10) < 7) {
+                text.append(WORDS[(topic + i) % WORDS.length]).append('-').append(topic).append('-').append(random.nextInt(WORDS_PER_TOPIC));
+            } else {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+        }
+        return text.toString();
+    }
+}
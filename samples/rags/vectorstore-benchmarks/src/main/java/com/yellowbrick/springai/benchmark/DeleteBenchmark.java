@@ -0,0 +1,96 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link YellowBrickVectorStore#delete(List)} for random documents of a corpus loaded once per
+ * trial. Every invocation deletes {@code documentsPerDelete} documents picked beforehand and adds as many
+ * new ones afterwards, outside the measurement, so the corpus keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeleteBenchmark {
+
+    private static final String TABLE_NAME = "bench_delete";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Param({"EXPLODED", "PACKED"})
+    public YellowBrickVectorStore.EmbeddingLayout embeddingLayout;
+
+    @Param({"1", "100", "1000"})
+    public int documentsPerDelete;
+
+    @Param({"1000", "100000", "1000000"})
+    public int corpusSize;
+
+    @Param({"384", "1536", "3072"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private List<String> docIds;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withEmbeddingLayout(this.embeddingLayout)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+        Corpus.load(this.vectorStore, this.corpusSize, LOAD_BATCH_SIZE);
+        this.seed = this.corpusSize;
+    }
+
+    @Setup(Level.Invocation)
+    public void pickDocuments() {
+        this.docIds = this.database.sampleDocIds(TABLE_NAME, this.documentsPerDelete);
+    }
+
+    @Benchmark
+    public Optional<Boolean> delete() {
+        return this.vectorStore.delete(this.docIds);
+    }
+
+    @TearDown(Level.Invocation)
+    public void replaceDocuments() {
+        this.vectorStore.add(Corpus.documents(this.docIds.size(), this.seed));
+        this.seed += this.docIds.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.vectorStore.destroy();
+        this.database.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.yellowbrick.springai.benchmark;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic stand-in for a paid embedding service. A text is embedded as the sum of a fixed random
+ * vector per word, so the same text always maps to the same vector, texts sharing words are similar, and
+ * benchmark runs are repeatable without leaving the JVM. An optional latency per call stands in for the
+ * network round trip to a real service.
+ */
+public class FakeEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+
+    private final Duration latency;
+
+    public FakeEmbeddingModel(int dimensions) {
+        this(dimensions, Duration.ZERO);
+    }
+
+    public FakeEmbeddingModel(int dimensions, Duration latency) {
+        this.dimensions = dimensions;
+        this.latency = latency;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        if (!this.latency.isZero()) {
+            try {
+                Thread.sleep(this.latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+        for (String text : request.getInstructions()) {
+            embeddings.add(new Embedding(vectorOf(text), embeddings.size()));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return vectorOf(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return this.dimensions;
+    }
+
+    private float[] vectorOf(String text) {
+        float[] vector = new float[this.dimensions];
+        for (String word : text.split(" ")) {
+            SplittableRandom random = new SplittableRandom(word.hashCode());
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] += (float) (random.nextDouble() * 2.0 - 1.0);
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,104 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput of {@link YellowBrickVectorStore#doAdd(List)}. The auxiliary counters report content
+ * rows/sec and vector rows/sec for each {@link YellowBrickVectorStore.IngestMode} and
+ * {@link YellowBrickVectorStore.EmbeddingLayout}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class IngestBenchmark {
+
+    private static final String TABLE_NAME = "bench_ingest";
+
+    @Param({"BATCH", "COPY"})
+    public YellowBrickVectorStore.IngestMode ingestMode;
+
+    @Param({"EXPLODED", "PACKED"})
+    public YellowBrickVectorStore.EmbeddingLayout embeddingLayout;
+
+    @Param({"1000"})
+    public int documentsPerAdd;
+
+    @Param({"384", "1536", "3072"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private List<Document> documents;
+
+    private long seed;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+
+        public long contentRows;
+
+        public long vectorRows;
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(this.documentsPerAdd)
+                .withIngestMode(this.ingestMode)
+                .withEmbeddingLayout(this.embeddingLayout)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        this.database.truncate(TABLE_NAME);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextDocuments() {
+        this.documents = Corpus.documents(this.documentsPerAdd, this.seed++);
+    }
+
+    @Benchmark
+    public void add(Rows rows) {
+        this.vectorStore.add(this.documents);
+        rows.contentRows += this.documents.size();
+        rows.vectorRows += this.embeddingLayout == YellowBrickVectorStore.EmbeddingLayout.PACKED
+                ? this.documents.size() : (long) this.documents.size() * this.dimensions;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+}
@@ -0,0 +1,118 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Recall versus latency of the IVF pre-filter. Both stores share one corpus: {@code exact} scores every
+ * vector, {@code ivf} only the {@code probes} lists closest to the query. The recall@topK of the IVF store
+ * against the exact one is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IvfBenchmark {
+
+    private static final String TABLE_NAME = "bench_ivf";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final int RECALL_QUERIES = 50;
+
+    private static final int TOP_K = 10;
+
+    @Param({"20000"})
+    public int corpusSize;
+
+    @Param({"1536"})
+    public int dimensions;
+
+    @Param({"141"})
+    public int lists;
+
+    @Param({"1", "4", "16"})
+    public int probes;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore exactStore;
+
+    private YellowBrickVectorStore ivfStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        FakeEmbeddingModel embeddingModel = new FakeEmbeddingModel(this.dimensions);
+        this.ivfStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), embeddingModel, this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .withIvfLists(this.lists)
+                .withIvfProbes(this.probes)
+                .build();
+        this.ivfStore.afterPropertiesSet();
+        this.database.truncate(TABLE_NAME);
+        Corpus.load(this.ivfStore, this.corpusSize, LOAD_BATCH_SIZE);
+        this.ivfStore.buildIvfIndex();
+
+        this.exactStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), embeddingModel, this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withNormalizeEmbeddings(true)
+                .build();
+
+        double hits = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            SearchRequest request = SearchRequest.query(Corpus.query(-1 - q)).withTopK(TOP_K);
+            Set<String> exact = ids(this.exactStore.similaritySearch(request));
+            hits += ids(this.ivfStore.similaritySearch(request)).stream().filter(exact::contains).count();
+        }
+        System.out.printf("%nIVF recall@%d with %d of %d lists probed: %.3f%n", TOP_K, this.probes, this.lists,
+                hits / (RECALL_QUERIES * TOP_K));
+    }
+
+    @Benchmark
+    public List<Document> exact() {
+        return this.exactStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K));
+    }
+
+    @Benchmark
+    public List<Document> ivf() {
+        return this.ivfStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    private static Set<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,123 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Documents/sec of {@link YellowBrickVectorStore#add(List)} when every embedding call costs a simulated
+ * network round trip. Concurrency 0 embeds everything before writing; higher values pipeline embedding
+ * batches with the writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PipelinedIngestBenchmark {
+
+    private static final String TABLE_NAME = "bench_pipelined_ingest";
+
+    @Param({"0", "2", "4", "8"})
+    public int embeddingConcurrency;
+
+    @Param({"50"})
+    public int embeddingLatencyMillis;
+
+    @Param({"100"})
+    public int documentsPerEmbeddingCall;
+
+    @Param({"5000"})
+    public int documentsPerAdd;
+
+    @Param({"500"})
+    public int maxDocumentBatchSize;
+
+    @Param({"1536"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private List<Document> documents;
+
+    private long seed;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Documents {
+
+        public long documents;
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(),
+                new FakeEmbeddingModel(this.dimensions, Duration.ofMillis(this.embeddingLatencyMillis)), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(this.maxDocumentBatchSize)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withEmbeddingLayout(YellowBrickVectorStore.EmbeddingLayout.PACKED)
+                .withBatchingStrategy(fixedSizeBatches(this.documentsPerEmbeddingCall))
+                .withEmbeddingConcurrency(this.embeddingConcurrency)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        this.database.truncate(TABLE_NAME);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextDocuments() {
+        this.documents = Corpus.documents(this.documentsPerAdd, this.seed++);
+    }
+
+    @Benchmark
+    public void add(Documents documents) {
+        this.vectorStore.add(this.documents);
+        documents.documents += this.documents.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.vectorStore.destroy();
+        this.database.close();
+    }
+
+    private static BatchingStrategy fixedSizeBatches(int size) {
+        return documents -> {
+            List<List<Document>> batches = new ArrayList<>();
+            for (int from = 0; from < documents.size(); from += size) {
+                batches.add(documents.subList(from, Math.min(from + size, documents.size())));
+            }
+            return batches;
+        };
+    }
+}
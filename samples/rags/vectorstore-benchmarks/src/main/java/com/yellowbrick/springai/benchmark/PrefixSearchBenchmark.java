@@ -0,0 +1,109 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Recall versus latency of a two-stage search that picks candidates on the leading dimensions of each
+ * embedding before scoring them in full. The fake embeddings are sums of random vectors, so any prefix is
+ * a random projection of the whole; a Matryoshka-trained model front-loads more of the signal and should
+ * recall at least as well. The recall@topK against a full search is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrefixSearchBenchmark {
+
+    private static final String TABLE_NAME = "bench_prefix";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final int RECALL_QUERIES = 50;
+
+    private static final int TOP_K = 10;
+
+    @Param({"128", "256"})
+    public int prefixDimensions;
+
+    @Param({"100", "500"})
+    public int candidates;
+
+    @Param({"100000"})
+    public int corpusSize;
+
+    @Param({"1536"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+        this.database.truncate(TABLE_NAME);
+        Corpus.load(this.vectorStore, this.corpusSize, LOAD_BATCH_SIZE);
+
+        double hits = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            SearchRequest request = SearchRequest.query(Corpus.query(-1 - q)).withTopK(TOP_K);
+            Set<String> exact = ids(this.vectorStore.similaritySearch(request));
+            hits += ids(this.vectorStore.prefixSearch(request, this.prefixDimensions, this.candidates)).stream().filter(exact::contains).count();
+        }
+        System.out.printf("%nrecall@%d with %d candidates from %d dimensions: %.3f%n", TOP_K, this.candidates, this.prefixDimensions,
+                hits / (RECALL_QUERIES * TOP_K));
+    }
+
+    @Benchmark
+    public List<Document> full() {
+        return this.vectorStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K));
+    }
+
+    @Benchmark
+    public List<Document> prefix() {
+        return this.vectorStore.prefixSearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K),
+                this.prefixDimensions, this.candidates);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    private static Set<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).collect(Collectors.toSet());
+    }
+}
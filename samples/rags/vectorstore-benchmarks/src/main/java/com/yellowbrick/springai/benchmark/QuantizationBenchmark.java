@@ -0,0 +1,121 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Recall versus latency of quantized embedding precisions. The same corpus is loaded into a store of
+ * exact {@code FLOAT} values and into one of the given precision; the recall@topK of the quantized store
+ * against the exact one, with and without full-precision re-ranking, is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QuantizationBenchmark {
+
+    private static final String EXACT_TABLE_NAME = "bench_quantization_exact";
+
+    private static final String QUANTIZED_TABLE_NAME = "bench_quantization";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final int RECALL_QUERIES = 50;
+
+    private static final int TOP_K = 10;
+
+    @Param({"REAL", "INT8"})
+    public YellowBrickVectorStore.EmbeddingPrecision precision;
+
+    @Param({"0", "40", "100"})
+    public int rerankCandidates;
+
+    @Param({"100000"})
+    public int corpusSize;
+
+    @Param({"1536"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore exactStore;
+
+    private YellowBrickVectorStore quantizedStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        FakeEmbeddingModel embeddingModel = new FakeEmbeddingModel(this.dimensions);
+        this.exactStore = store(embeddingModel, EXACT_TABLE_NAME, YellowBrickVectorStore.EmbeddingPrecision.DOUBLE, 0);
+        this.quantizedStore = store(embeddingModel, QUANTIZED_TABLE_NAME, this.precision, this.rerankCandidates);
+
+        double hits = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            SearchRequest request = SearchRequest.query(Corpus.query(-1 - q)).withTopK(TOP_K);
+            Set<String> exact = ids(this.exactStore.similaritySearch(request));
+            hits += ids(this.quantizedStore.similaritySearch(request)).stream().filter(exact::contains).count();
+        }
+        System.out.printf("%n%s recall@%d with %d candidates re-ranked: %.3f%n", this.precision, TOP_K, this.rerankCandidates,
+                hits / (RECALL_QUERIES * TOP_K));
+    }
+
+    private YellowBrickVectorStore store(FakeEmbeddingModel embeddingModel, String tableName,
+                                         YellowBrickVectorStore.EmbeddingPrecision precision, int rerankCandidates) throws Exception {
+        YellowBrickVectorStore store = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), embeddingModel, this.database.getTransactionManager())
+                .withVectorTableName(tableName)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .withEmbeddingPrecision(precision)
+                .withRerankCandidates(rerankCandidates)
+                .build();
+        store.afterPropertiesSet();
+        this.database.truncate(tableName);
+        Corpus.load(store, this.corpusSize, LOAD_BATCH_SIZE);
+        return store;
+    }
+
+    @Benchmark
+    public List<Document> exact() {
+        return this.exactStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K));
+    }
+
+    @Benchmark
+    public List<Document> quantized() {
+        return this.quantizedStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(TOP_K));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    private static Set<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).collect(Collectors.toSet());
+    }
+}
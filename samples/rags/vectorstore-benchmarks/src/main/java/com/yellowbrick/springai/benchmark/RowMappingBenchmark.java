@@ -0,0 +1,117 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yellowbrick.springai.vectorstore.YbDocumentRowMapper;
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning search result rows into documents, without a database: the rows are served from memory
+ * by a stand-in {@link ResultSet}. {@code perRowObjectMapper} is the mapping search results used to go
+ * through, with a new {@code ObjectMapper} per row; {@code sharedReader} is {@link YbDocumentRowMapper}
+ * with eager metadata, {@code lazyMetadata} the same with metadata parsed on first access, which a chat
+ * request that only reads the text never does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    @Param({"5", "50"})
+    public int rows;
+
+    private Object[][] resultRows;
+
+    private final RowMapper<Document> sharedReader = new YbDocumentRowMapper(false);
+
+    private final RowMapper<Document> lazyMetadata = new YbDocumentRowMapper(true);
+
+    private final RowMapper<Document> perRowObjectMapper = (rs, rowNum) -> {
+        try {
+            rs.getString(3);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> metadata = new ObjectMapper().readValue(rs.getString(3), Map.class);
+            metadata.put(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME, 1.0 - rs.getDouble(4));
+            return new Document(rs.getString(1), rs.getString(2), metadata);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Document> documents = Corpus.documents(this.rows, 0);
+        this.resultRows = new Object[this.rows][];
+        for (int i = 0; i < this.rows; i++) {
+            Document document = documents.get(i);
+            this.resultRows[i] = new Object[]{document.getId(), document.getContent(),
+                    objectMapper.writeValueAsString(new TreeMap<>(document.getMetadata())), 0.9 - i * 0.001};
+        }
+    }
+
+    @Benchmark
+    public List<Document> perRowObjectMapper() throws SQLException {
+        return map(this.perRowObjectMapper);
+    }
+
+    @Benchmark
+    public List<Document> sharedReader() throws SQLException {
+        return map(this.sharedReader);
+    }
+
+    @Benchmark
+    public List<Document> lazyMetadata() throws SQLException {
+        return map(this.lazyMetadata);
+    }
+
+    private List<Document> map(RowMapper<Document> rowMapper) throws SQLException {
+        ResultSet rs = resultSet(this.resultRows);
+        List<Document> documents = new ArrayList<>(this.resultRows.length);
+        int rowNum = 0;
+        while (rs.next()) {
+            documents.add(rowMapper.mapRow(rs, rowNum++));
+        }
+        return documents;
+    }
+
+    /**
+     * A forward-only result set over the rows supporting {@code next}, {@code getString} and
+     * {@code getDouble} by column index.
+     */
+    private static ResultSet resultSet(Object[][] rows) {
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "next" -> ++cursor[0] < rows.length;
+                    case "getString" -> (String) rows[cursor[0]][(int) args[0] - 1];
+                    case "getDouble" -> ((Number) rows[cursor[0]][(int) args[0] - 1]).doubleValue();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link YellowBrickVectorStore#similaritySearch(SearchRequest)} over a corpus loaded once per
+ * trial. Sample-time mode reports the p50/p99 percentiles of each search; the row counts printed during
+ * setup show the storage side of each layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final String TABLE_NAME = "bench_search";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Param({"EXPLODED", "PACKED"})
+    public YellowBrickVectorStore.EmbeddingLayout embeddingLayout;
+
+    @Param({"false", "true"})
+    public boolean normalizeEmbeddings;
+
+    @Param({"1000", "100000", "1000000"})
+    public int corpusSize;
+
+    @Param({"384", "1536", "3072"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withEmbeddingLayout(this.embeddingLayout)
+                .withNormalizeEmbeddings(this.normalizeEmbeddings)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+        this.database.truncate(TABLE_NAME);
+
+        Corpus.load(this.vectorStore, this.corpusSize, LOAD_BATCH_SIZE);
+        System.out.printf("%n%s layout: %d content rows, %d vector rows%n", this.embeddingLayout,
+                this.database.count(TABLE_NAME + "_content"), this.database.count(TABLE_NAME));
+    }
+
+    @Benchmark
+    public List<Document> search() {
+        return this.vectorStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+}
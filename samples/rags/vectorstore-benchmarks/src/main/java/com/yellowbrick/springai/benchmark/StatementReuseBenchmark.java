@@ -0,0 +1,95 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.config.YbHikariDataSourceTuner;
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.PGConnection;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-statement overhead of the vector store with and without server-side prepared statements. The corpus
+ * is kept small so that parsing and planning, rather than scoring, dominate: {@code search} runs the
+ * exploded scoring statement with one bind parameter per dimension, {@code unchangedAdd} re-adds a stored
+ * document, which costs a single content-hash lookup. A {@code prepareThreshold} of 0 makes the driver
+ * parse and plan every execution; 1 prepares each statement text once per connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StatementReuseBenchmark {
+
+    private static final String TABLE_NAME = "bench_statements";
+
+    @Param({"0", "1"})
+    public int prepareThreshold;
+
+    @Param({"1000"})
+    public int corpusSize;
+
+    @Param({"384"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private List<Document> storedDocument;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase(config -> YbHikariDataSourceTuner.tune(config, this.prepareThreshold, 256, 0));
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+
+        List<Document> documents = Corpus.documents(this.corpusSize, 0);
+        this.vectorStore.add(documents);
+        this.storedDocument = List.of(documents.get(0));
+        Integer threshold = this.database.getJdbcTemplate().execute((ConnectionCallback<Integer>) connection ->
+                connection.unwrap(PGConnection.class).getPrepareThreshold());
+        System.out.printf("%nconnections prepare statements server-side from execution %d on (0 = never)%n", threshold);
+    }
+
+    @Benchmark
+    public List<Document> search() {
+        return this.vectorStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)).withTopK(5));
+    }
+
+    @Benchmark
+    public void unchangedAdd() {
+        this.vectorStore.add(this.storedDocument);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.vectorStore.destroy();
+        this.database.close();
+    }
+}
@@ -0,0 +1,85 @@
+package com.yellowbrick.springai.benchmark;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over an exploded vector table distributed on doc_id, co-located with the content table,
+ * against one distributed at random. The plan of the search statement is printed during setup: with
+ * random distribution it redistributes the vector rows by doc_id before grouping them, with doc_id
+ * distribution it does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TableDistributionBenchmark {
+
+    private static final String TABLE_NAME = "bench_distribution";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Param({"DOC_ID", "RANDOM"})
+    public YellowBrickVectorStore.VectorTableDistribution distribution;
+
+    @Param({"1000", "100000", "1000000"})
+    public int corpusSize;
+
+    @Param({"384", "1536"})
+    public int dimensions;
+
+    private BenchmarkDatabase database;
+
+    private YellowBrickVectorStore vectorStore;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.database = new BenchmarkDatabase();
+        this.vectorStore = new YellowBrickVectorStore.Builder(this.database.getJdbcTemplate(), new FakeEmbeddingModel(this.dimensions), this.database.getTransactionManager())
+                .withVectorTableName(TABLE_NAME)
+                .withInitializeSchema(true)
+                .withRemoveExistingVectorStoreTable(true)
+                .withVectorTableDistribution(this.distribution)
+                .withMaxDocumentBatchSize(LOAD_BATCH_SIZE)
+                .withIngestMode(YellowBrickVectorStore.IngestMode.COPY)
+                .withNormalizeEmbeddings(true)
+                .build();
+        this.vectorStore.afterPropertiesSet();
+        this.database.truncate(TABLE_NAME);
+
+        Corpus.load(this.vectorStore, this.corpusSize, LOAD_BATCH_SIZE);
+        System.out.printf("%n%s distribution, %d vector rows, search plan:%n", this.distribution, this.database.count(TABLE_NAME));
+        this.vectorStore.explainSimilaritySearch(SearchRequest.query(Corpus.query(0))).forEach(System.out::println);
+    }
+
+    @Benchmark
+    public List<Document> search() {
+        return this.vectorStore.similaritySearch(SearchRequest.query(Corpus.query(this.seed++)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+}
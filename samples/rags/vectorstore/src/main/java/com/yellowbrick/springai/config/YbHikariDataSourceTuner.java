@@ -0,0 +1,61 @@
+package com.yellowbrick.springai.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Applies the connection settings recommended for the vector store to a HikariCP data source before its
+ * pool starts: the PostgreSQL driver switches statements to server-side prepared statements from the
+ * {@code prepareThreshold}-th execution on a connection and keeps up to
+ * {@code preparedStatementCacheQueries} of them per connection, enough for every statement text of the
+ * store, and the pool is sized to {@code connectionPoolSize} when one is configured. HikariCP keeps the
+ * pool at its maximum size unless a minimum idle count is set, so connections are opened up front rather
+ * than on the search path.
+ * <p>
+ * Only the data source bean named {@code dataSourceBeanName}, the one the store's {@code JdbcTemplate} uses
+ * by default, is tuned, and only when its JDBC URL is a PostgreSQL one: other pools in the context and
+ * pools of other drivers are left alone, as are driver properties already set on the data source or in
+ * the JDBC URL. Tuning is off unless {@code tuneDataSource} is set.
+ */
+public class YbHikariDataSourceTuner implements BeanPostProcessor {
+
+    private static final String POSTGRESQL_URL_PREFIX = "jdbc:postgresql:";
+
+    private final ObjectProvider<YbVectorStoreProperties> properties;
+
+    public YbHikariDataSourceTuner(ObjectProvider<YbVectorStoreProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && dataSource.getHikariPoolMXBean() == null) {
+            YbVectorStoreProperties properties = this.properties.getIfAvailable();
+            if (properties != null && properties.isTuneDataSource() && beanName.equals(properties.getDataSourceBeanName())
+                    && dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith(POSTGRESQL_URL_PREFIX)) {
+                tune(dataSource, properties.getPrepareThreshold(), properties.getPreparedStatementCacheQueries(), properties.getConnectionPoolSize());
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * @param connectionPoolSize the maximum pool size, or 0 to keep the configured one
+     */
+    public static void tune(HikariConfig config, int prepareThreshold, int preparedStatementCacheQueries, int connectionPoolSize) {
+        setDriverPropertyIfAbsent(config, "prepareThreshold", prepareThreshold);
+        setDriverPropertyIfAbsent(config, "preparedStatementCacheQueries", preparedStatementCacheQueries);
+        if (connectionPoolSize > 0) {
+            config.setMaximumPoolSize(connectionPoolSize);
+        }
+    }
+
+    private static void setDriverPropertyIfAbsent(HikariConfig config, String name, int value) {
+        String jdbcUrl = config.getJdbcUrl();
+        if (!config.getDataSourceProperties().containsKey(name) && (jdbcUrl == null || !jdbcUrl.contains(name + "="))) {
+            config.addDataSourceProperty(name, String.valueOf(value));
+        }
+    }
+}
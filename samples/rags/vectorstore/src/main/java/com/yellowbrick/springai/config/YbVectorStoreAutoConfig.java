@@ -1,6 +1,7 @@
 package com.yellowbrick.springai.config;
 
 import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
@@ -32,16 +33,57 @@ public class YbVectorStoreAutoConfig {
         return new TokenCountBatchingStrategy();
     }
 
+    @Bean
+    @ConditionalOnClass(name = "com.zaxxer.hikari.HikariDataSource")
+    static YbHikariDataSourceTuner ybHikariDataSourceTuner(ObjectProvider<YbVectorStoreProperties> properties) {
+        return new YbHikariDataSourceTuner(properties);
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    YellowBrickVectorStore ybvectorStore(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel, YbVectorStoreProperties properties, ObjectProvider<ObservationRegistry> observationRegistry, ObjectProvider<VectorStoreObservationConvention> customObservationConvention, BatchingStrategy batchingStrategy, PlatformTransactionManager platformTransactionManager) {
-        return new YellowBrickVectorStore( properties.getTableName(), jdbcTemplate, embeddingModel, properties.isInitializeSchema(),
-                (ObservationRegistry) observationRegistry.getIfUnique(() -> {
+    YellowBrickVectorStore ybvectorStore(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel, YbVectorStoreProperties properties, ObjectProvider<ObservationRegistry> observationRegistry, ObjectProvider<VectorStoreObservationConvention> customObservationConvention, ObjectProvider<MeterRegistry> meterRegistry, BatchingStrategy batchingStrategy, PlatformTransactionManager platformTransactionManager) {
+        return new YellowBrickVectorStore.Builder(jdbcTemplate, embeddingModel, platformTransactionManager)
+                .withVectorTableName(properties.getTableName())
+                .withSchemaName(properties.getSchemaName())
+                .withVectorTableDistribution(properties.getVectorTableDistribution())
+                .withInitializeSchema(properties.isInitializeSchema())
+                .withRemoveExistingVectorStoreTable(properties.isRemoveExistingVectorStoreTable())
+                .withObservationRegistry((ObservationRegistry) observationRegistry.getIfUnique(() -> {
                     return ObservationRegistry.NOOP;
-                }),
-                (VectorStoreObservationConvention) customObservationConvention.getIfAvailable(() -> {
+                }))
+                .withSearchObservationConvention((VectorStoreObservationConvention) customObservationConvention.getIfAvailable(() -> {
                     return null;
-                }), batchingStrategy, properties.getMaxDocumentBatchSize(),platformTransactionManager);
+                }))
+                .withBatchingStrategy(batchingStrategy)
+                .withMaxDocumentBatchSize(properties.getMaxDocumentBatchSize())
+                .withIngestMode(properties.getIngestMode())
+                .withEmbeddingLayout(properties.getEmbeddingLayout())
+                .withEmbeddingPrecision(properties.getEmbeddingPrecision())
+                .withRerankCandidates(properties.getRerankCandidates())
+                .withPrefixDimensions(properties.getPrefixDimensions())
+                .withPrefixCandidates(properties.getPrefixCandidates())
+                .withCoalesceSearches(properties.isCoalesceSearches())
+                .withNormalizeEmbeddings(properties.isNormalizeEmbeddings())
+                .withIvfLists(properties.getIvfLists())
+                .withIvfProbes(properties.getIvfProbes())
+                .withIvfTrainingSampleSize(properties.getIvfTrainingSampleSize())
+                .withIvfMaxIterations(properties.getIvfMaxIterations())
+                .withIvfSeed(properties.getIvfSeed())
+                .withHotCacheMaxBytes(properties.getHotCacheMaxMemory().toBytes())
+                .withHotCacheOffHeap(properties.isHotCacheOffHeap())
+                .withHotCacheEviction(properties.getHotCacheEviction())
+                .withHotCacheAnchors(properties.getHotCacheAnchors())
+                .withQueryCacheMaxEntries(properties.getQueryCacheMaxEntries())
+                .withQueryCacheTtl(properties.getQueryCacheTtl())
+                .withQueryCacheSimilarityThreshold(properties.getQueryCacheSimilarityThreshold())
+                .withEmbeddingConcurrency(properties.getEmbeddingConcurrency())
+                .withEmbeddingQueueCapacity(properties.getEmbeddingQueueCapacity())
+                .withLazyMetadata(properties.isLazyMetadata())
+                .withMeterRegistry(meterRegistry.getIfUnique())
+                .withSearchMode(properties.getSearchMode())
+                .withHybridRankConstant(properties.getHybridRankConstant())
+                .withHybridCandidates(properties.getHybridCandidates())
+                .build();
 
     }
 }
@@ -1,7 +1,11 @@
 package com.yellowbrick.springai.config;
 
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
 import org.springframework.ai.autoconfigure.vectorstore.CommonVectorStoreProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @ConfigurationProperties("spring.ai.vectorstore.ybvector")
 public class YbVectorStoreProperties extends CommonVectorStoreProperties {
@@ -10,12 +14,84 @@ public class YbVectorStoreProperties extends CommonVectorStoreProperties {
     private String tableName;
     private String schemaName;
     private int maxDocumentBatchSize;
+    private YellowBrickVectorStore.IngestMode ingestMode;
+    private YellowBrickVectorStore.EmbeddingLayout embeddingLayout;
+    private boolean normalizeEmbeddings;
+    private int ivfLists;
+    private int ivfProbes;
+    private int ivfTrainingSampleSize;
+    private int ivfMaxIterations;
+    private long ivfSeed;
+    private DataSize hotCacheMaxMemory;
+    private boolean hotCacheOffHeap;
+    private YellowBrickVectorStore.HotCacheEviction hotCacheEviction;
+    private int hotCacheAnchors;
+    private int queryCacheMaxEntries;
+    private Duration queryCacheTtl;
+    private double queryCacheSimilarityThreshold;
+    private int embeddingConcurrency;
+    private int embeddingQueueCapacity;
+    private boolean tuneDataSource;
+    private String dataSourceBeanName;
+    private int prepareThreshold;
+    private int preparedStatementCacheQueries;
+    private int connectionPoolSize;
+    private boolean lazyMetadata;
+
+    private YellowBrickVectorStore.VectorTableDistribution vectorTableDistribution;
+
+    private YellowBrickVectorStore.EmbeddingPrecision embeddingPrecision;
+
+    private int rerankCandidates;
+
+    private int prefixDimensions;
+
+    private int prefixCandidates;
+    private boolean coalesceSearches;
+
+    private YellowBrickVectorStore.SearchMode searchMode;
+
+    private int hybridRankConstant;
+
+    private int hybridCandidates;
 
     public YbVectorStoreProperties() {
         this.removeExistingVectorStoreTable = false;
         this.tableName = "vector_store";
         this.schemaName = "public";
         this.maxDocumentBatchSize = 10000;
+        this.ingestMode = YellowBrickVectorStore.IngestMode.BATCH;
+        this.embeddingLayout = YellowBrickVectorStore.EmbeddingLayout.EXPLODED;
+        this.normalizeEmbeddings = false;
+        this.ivfLists = 0;
+        this.ivfProbes = 8;
+        this.ivfTrainingSampleSize = 50000;
+        this.ivfMaxIterations = 25;
+        this.ivfSeed = YellowBrickVectorStore.DEFAULT_IVF_SEED;
+        this.hotCacheMaxMemory = DataSize.ofBytes(0);
+        this.hotCacheOffHeap = false;
+        this.hotCacheEviction = YellowBrickVectorStore.HotCacheEviction.LFU;
+        this.hotCacheAnchors = 256;
+        this.queryCacheMaxEntries = 0;
+        this.queryCacheTtl = Duration.ofMinutes(10);
+        this.queryCacheSimilarityThreshold = 0.97;
+        this.embeddingConcurrency = 0;
+        this.embeddingQueueCapacity = 0;
+        this.tuneDataSource = false;
+        this.dataSourceBeanName = "dataSource";
+        this.prepareThreshold = 1;
+        this.preparedStatementCacheQueries = 256;
+        this.connectionPoolSize = 0;
+        this.lazyMetadata = false;
+        this.vectorTableDistribution = YellowBrickVectorStore.VectorTableDistribution.DOC_ID;
+        this.embeddingPrecision = YellowBrickVectorStore.EmbeddingPrecision.DOUBLE;
+        this.rerankCandidates = 100;
+        this.prefixDimensions = 0;
+        this.prefixCandidates = 500;
+        this.coalesceSearches = false;
+        this.searchMode = YellowBrickVectorStore.SearchMode.VECTOR;
+        this.hybridRankConstant = 60;
+        this.hybridCandidates = 50;
     }
 
 
@@ -57,4 +133,260 @@ public class YbVectorStoreProperties extends CommonVectorStoreProperties {
     public void setMaxDocumentBatchSize(int maxDocumentBatchSize) {
         this.maxDocumentBatchSize = maxDocumentBatchSize;
     }
+
+    public YellowBrickVectorStore.IngestMode getIngestMode() {
+        return this.ingestMode;
+    }
+
+    public void setIngestMode(YellowBrickVectorStore.IngestMode ingestMode) {
+        this.ingestMode = ingestMode;
+    }
+
+    public YellowBrickVectorStore.EmbeddingLayout getEmbeddingLayout() {
+        return this.embeddingLayout;
+    }
+
+    public void setEmbeddingLayout(YellowBrickVectorStore.EmbeddingLayout embeddingLayout) {
+        this.embeddingLayout = embeddingLayout;
+    }
+
+    public boolean isNormalizeEmbeddings() {
+        return this.normalizeEmbeddings;
+    }
+
+    public void setNormalizeEmbeddings(boolean normalizeEmbeddings) {
+        this.normalizeEmbeddings = normalizeEmbeddings;
+    }
+
+    public int getIvfLists() {
+        return this.ivfLists;
+    }
+
+    public void setIvfLists(int ivfLists) {
+        this.ivfLists = ivfLists;
+    }
+
+    public int getIvfProbes() {
+        return this.ivfProbes;
+    }
+
+    public void setIvfProbes(int ivfProbes) {
+        this.ivfProbes = ivfProbes;
+    }
+
+    public int getIvfTrainingSampleSize() {
+        return this.ivfTrainingSampleSize;
+    }
+
+    public void setIvfTrainingSampleSize(int ivfTrainingSampleSize) {
+        this.ivfTrainingSampleSize = ivfTrainingSampleSize;
+    }
+
+    public int getIvfMaxIterations() {
+        return this.ivfMaxIterations;
+    }
+
+    public void setIvfMaxIterations(int ivfMaxIterations) {
+        this.ivfMaxIterations = ivfMaxIterations;
+    }
+
+    public long getIvfSeed() {
+        return this.ivfSeed;
+    }
+
+    public void setIvfSeed(long ivfSeed) {
+        this.ivfSeed = ivfSeed;
+    }
+
+    public DataSize getHotCacheMaxMemory() {
+        return this.hotCacheMaxMemory;
+    }
+
+    public void setHotCacheMaxMemory(DataSize hotCacheMaxMemory) {
+        this.hotCacheMaxMemory = hotCacheMaxMemory;
+    }
+
+    public boolean isHotCacheOffHeap() {
+        return this.hotCacheOffHeap;
+    }
+
+    public void setHotCacheOffHeap(boolean hotCacheOffHeap) {
+        this.hotCacheOffHeap = hotCacheOffHeap;
+    }
+
+    public YellowBrickVectorStore.HotCacheEviction getHotCacheEviction() {
+        return this.hotCacheEviction;
+    }
+
+    public void setHotCacheEviction(YellowBrickVectorStore.HotCacheEviction hotCacheEviction) {
+        this.hotCacheEviction = hotCacheEviction;
+    }
+
+    public int getHotCacheAnchors() {
+        return this.hotCacheAnchors;
+    }
+
+    public void setHotCacheAnchors(int hotCacheAnchors) {
+        this.hotCacheAnchors = hotCacheAnchors;
+    }
+
+    public int getQueryCacheMaxEntries() {
+        return this.queryCacheMaxEntries;
+    }
+
+    public void setQueryCacheMaxEntries(int queryCacheMaxEntries) {
+        this.queryCacheMaxEntries = queryCacheMaxEntries;
+    }
+
+    public Duration getQueryCacheTtl() {
+        return this.queryCacheTtl;
+    }
+
+    public void setQueryCacheTtl(Duration queryCacheTtl) {
+        this.queryCacheTtl = queryCacheTtl;
+    }
+
+    public double getQueryCacheSimilarityThreshold() {
+        return this.queryCacheSimilarityThreshold;
+    }
+
+    public void setQueryCacheSimilarityThreshold(double queryCacheSimilarityThreshold) {
+        this.queryCacheSimilarityThreshold = queryCacheSimilarityThreshold;
+    }
+
+    public int getEmbeddingConcurrency() {
+        return this.embeddingConcurrency;
+    }
+
+    public void setEmbeddingConcurrency(int embeddingConcurrency) {
+        this.embeddingConcurrency = embeddingConcurrency;
+    }
+
+    public int getEmbeddingQueueCapacity() {
+        return this.embeddingQueueCapacity;
+    }
+
+    public void setEmbeddingQueueCapacity(int embeddingQueueCapacity) {
+        this.embeddingQueueCapacity = embeddingQueueCapacity;
+    }
+
+    public boolean isTuneDataSource() {
+        return this.tuneDataSource;
+    }
+
+    public void setTuneDataSource(boolean tuneDataSource) {
+        this.tuneDataSource = tuneDataSource;
+    }
+
+    public String getDataSourceBeanName() {
+        return this.dataSourceBeanName;
+    }
+
+    public void setDataSourceBeanName(String dataSourceBeanName) {
+        this.dataSourceBeanName = dataSourceBeanName;
+    }
+
+    public int getPrepareThreshold() {
+        return this.prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    public int getPreparedStatementCacheQueries() {
+        return this.preparedStatementCacheQueries;
+    }
+
+    public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+
+    public int getConnectionPoolSize() {
+        return this.connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public boolean isLazyMetadata() {
+        return this.lazyMetadata;
+    }
+
+    public void setLazyMetadata(boolean lazyMetadata) {
+        this.lazyMetadata = lazyMetadata;
+    }
+
+    public YellowBrickVectorStore.SearchMode getSearchMode() {
+        return this.searchMode;
+    }
+
+    public void setSearchMode(YellowBrickVectorStore.SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    public int getHybridRankConstant() {
+        return this.hybridRankConstant;
+    }
+
+    public void setHybridRankConstant(int hybridRankConstant) {
+        this.hybridRankConstant = hybridRankConstant;
+    }
+
+    public int getHybridCandidates() {
+        return this.hybridCandidates;
+    }
+
+    public void setHybridCandidates(int hybridCandidates) {
+        this.hybridCandidates = hybridCandidates;
+    }
+
+    public YellowBrickVectorStore.VectorTableDistribution getVectorTableDistribution() {
+        return this.vectorTableDistribution;
+    }
+
+    public void setVectorTableDistribution(YellowBrickVectorStore.VectorTableDistribution vectorTableDistribution) {
+        this.vectorTableDistribution = vectorTableDistribution;
+    }
+
+    public YellowBrickVectorStore.EmbeddingPrecision getEmbeddingPrecision() {
+        return this.embeddingPrecision;
+    }
+
+    public void setEmbeddingPrecision(YellowBrickVectorStore.EmbeddingPrecision embeddingPrecision) {
+        this.embeddingPrecision = embeddingPrecision;
+    }
+
+    public int getRerankCandidates() {
+        return this.rerankCandidates;
+    }
+
+    public void setRerankCandidates(int rerankCandidates) {
+        this.rerankCandidates = rerankCandidates;
+    }
+
+    public int getPrefixDimensions() {
+        return this.prefixDimensions;
+    }
+
+    public void setPrefixDimensions(int prefixDimensions) {
+        this.prefixDimensions = prefixDimensions;
+    }
+
+    public int getPrefixCandidates() {
+        return this.prefixCandidates;
+    }
+
+    public void setPrefixCandidates(int prefixCandidates) {
+        this.prefixCandidates = prefixCandidates;
+    }
+
+    public boolean isCoalesceSearches() {
+        return this.coalesceSearches;
+    }
+
+    public void setCoalesceSearches(boolean coalesceSearches) {
+        this.coalesceSearches = coalesceSearches;
+    }
 }
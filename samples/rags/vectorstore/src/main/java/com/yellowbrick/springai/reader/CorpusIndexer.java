@@ -0,0 +1,124 @@
+package com.yellowbrick.springai.reader;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Indexes a corpus with a {@link CorpusLoader} and keeps track of how the load is going, so that an
+ * application can index in the background and report its progress, see
+ * {@link CorpusIndexerHealthIndicator}. Every page is synced as a source of its own and so committed as
+ * soon as it is written: after a crash or restart the pages already indexed are skipped without being
+ * embedded again, and pages a file no longer has are removed once the file is loaded.
+ */
+public class CorpusIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorpusIndexer.class);
+
+    private final YellowBrickVectorStore vectorStore;
+
+    private final int parallelism;
+
+    private final int queueCapacity;
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile boolean previousIndexAvailable;
+
+    private volatile int fileCount;
+
+    private final AtomicInteger filesLoaded = new AtomicInteger();
+
+    private volatile String failure;
+
+    /**
+     * @param parallelism   the number of files read and split at the same time; 0 uses one per processor
+     * @param queueCapacity the number of split pages or files of one file that may wait for the store
+     */
+    public CorpusIndexer(YellowBrickVectorStore vectorStore, int parallelism, int queueCapacity) {
+        this.vectorStore = vectorStore;
+        this.parallelism = parallelism;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Index the files at {@code location}; PDF, text and markdown files are loaded, anything else is
+     * ignored. Failures are logged and reported by {@link #getStatus()} and {@link #getFailure()} rather
+     * than thrown.
+     */
+    public void load(ResourcePatternResolver resourcePatternResolver, String location) {
+        this.status = Status.LOADING;
+        this.filesLoaded.set(0);
+        this.failure = null;
+        int parallelism = this.parallelism > 0 ? this.parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool readers = new ForkJoinPool(parallelism);
+        try {
+            this.previousIndexAvailable = !this.vectorStore.findSources("").isEmpty();
+            List<Resource> files = Arrays.stream(resourcePatternResolver.getResources(location))
+                    .filter(CorpusLoader::isSupported)
+                    .toList();
+            this.fileCount = files.size();
+
+            ExtractedTextFormatter formatter = ExtractedTextFormatter.builder()
+                    .withNumberOfBottomTextLinesToDelete(3)
+                    .withNumberOfTopPagesToSkipBeforeDelete(1)
+                    .build();
+            CorpusLoader loader = new CorpusLoader(this.vectorStore, new TokenTextSplitter(), formatter, readers, parallelism, this.queueCapacity);
+            CorpusLoader.CorpusResult result = loader.load(files, stats -> this.filesLoaded.incrementAndGet());
+            this.status = Status.COMPLETED;
+            logger.info("loaded {} from {}", result, location);
+        } catch (IOException | RuntimeException e) {
+            fail(location, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(location, e);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private void fail(String location, Exception e) {
+        this.failure = e.getMessage();
+        this.status = Status.FAILED;
+        logger.error("loading {} failed after {} files", location, this.filesLoaded.get(), e);
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Whether documents of an earlier load were stored when this load started, so searches have an index
+     * to work with while it runs, or after it failed.
+     */
+    public boolean isPreviousIndexAvailable() {
+        return this.previousIndexAvailable;
+    }
+
+    public int getFileCount() {
+        return this.fileCount;
+    }
+
+    public int getFilesLoaded() {
+        return this.filesLoaded.get();
+    }
+
+    public String getFailure() {
+        return this.failure;
+    }
+
+    public enum Status {
+        PENDING, LOADING, COMPLETED, FAILED
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.yellowbrick.springai.reader;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Reports the progress of a {@link CorpusIndexer}. The application is ready whenever an index can be
+ * searched: once a load completed, and while a load runs or after it failed as long as an earlier index
+ * is stored, in which case the failure is reported as a detail. It is out of service until the first
+ * load completes and down when the first load failed.
+ */
+public class CorpusIndexerHealthIndicator implements HealthIndicator {
+
+    private final CorpusIndexer indexer;
+
+    public CorpusIndexerHealthIndicator(CorpusIndexer indexer) {
+        this.indexer = indexer;
+    }
+
+    @Override
+    public Health health() {
+        CorpusIndexer.Status status = this.indexer.getStatus();
+        boolean searchable = status == CorpusIndexer.Status.COMPLETED || this.indexer.isPreviousIndexAvailable();
+        Health.Builder health = searchable ? Health.up()
+                : status == CorpusIndexer.Status.FAILED ? Health.down() : Health.outOfService();
+        if (status == CorpusIndexer.Status.FAILED) {
+            health.withDetail("error", String.valueOf(this.indexer.getFailure()));
+        }
+        return health.withDetail("status", status)
+                .withDetail("filesLoaded", this.indexer.getFilesLoaded())
+                .withDetail("fileCount", this.indexer.getFileCount())
+                .build();
+    }
+}
@@ -0,0 +1,334 @@
+package com.yellowbrick.springai.reader;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentTransformer;
+import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Loads a corpus of PDF, text and markdown files into a {@link YellowBrickVectorStore}.
+ * <p>
+ * Files are read and split in parallel on the given executor and handed to the calling thread through one
+ * bounded queue per file, which syncs them into the store one unit at a time: a page of a PDF, or a whole
+ * text or markdown file. A slow store therefore holds the readers back instead of letting split chunks
+ * pile up on the heap. Files are written in name order and their readers are started in that order too,
+ * at most {@code readers} at once, the next one whenever a file is written: the file being written is thus
+ * always being read, even while every reader waits on a full queue. Chunks whose text an earlier file of
+ * this load already wrote are skipped, so a chunk shared by several files always belongs to the first of
+ * them and repeated loads do not move it between sources. Each unit is synced as a source of its own ({@code file#page=n} for PDF pages, the file name otherwise), so a repeated
+ * load only embeds what changed and removes the pages a file no longer has. Files are identified by name,
+ * so two files of the same name in different directories overwrite each other.
+ */
+public class CorpusLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorpusLoader.class);
+
+    public static final Set<String> SUPPORTED_EXTENSIONS = Set.of("pdf", "txt", "md");
+
+    /**
+     * Separates the file name from the page number in the source of a PDF page, e.g.
+     * {@code Employee_Handbook.pdf#page=3}.
+     */
+    public static final String PAGE_SEPARATOR = "#page=";
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final YellowBrickVectorStore vectorStore;
+
+    private final DocumentTransformer splitter;
+
+    private final ExtractedTextFormatter pdfFormatter;
+
+    private final Executor executor;
+
+    private final int readers;
+
+    private final int queueCapacity;
+
+    /**
+     * @param executor      reads and splits the files; one task is submitted per file
+     * @param readers       the number of files read at the same time; the executor must be able to run this
+     *                      many tasks at once, or a load may wait forever on a reader that never starts
+     * @param queueCapacity the number of split units of one file that may wait for the store
+     */
+    public CorpusLoader(YellowBrickVectorStore vectorStore, DocumentTransformer splitter, ExtractedTextFormatter pdfFormatter,
+                        Executor executor, int readers, int queueCapacity) {
+        Assert.isTrue(readers >= 1, "readers must be at least 1");
+        this.vectorStore = vectorStore;
+        this.splitter = splitter;
+        this.pdfFormatter = pdfFormatter;
+        this.executor = executor;
+        this.readers = readers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Load the supported files among {@code resources} and wait until all of them are written.
+     *
+     * @param onFileLoaded called on the calling thread with the statistics of each file once it is written
+     * @throws IllegalStateException if a file cannot be read
+     */
+    public CorpusResult load(List<Resource> resources, Consumer<FileStats> onFileLoaded) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Resource> files = resources.stream()
+                .filter(CorpusLoader::isSupported)
+                .sorted(Comparator.comparing(Resource::getFilename))
+                .toList();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<BlockingQueue<Unit>> queues = new ArrayList<>(files.size());
+        List<FileProgress> progress = new ArrayList<>(files.size());
+        Set<String> writtenChunks = new HashSet<>();
+        List<FileStats> loaded = new ArrayList<>(files.size());
+        try {
+            while (queues.size() < Math.min(this.readers, files.size())) {
+                startReading(files.get(queues.size()), queues, progress, cancelled);
+            }
+            for (int i = 0; i < files.size(); i++) {
+                FileProgress file = progress.get(i);
+                Unit unit = queues.get(i).take();
+                while (unit.source() != null) {
+                    write(unit, file, writtenChunks);
+                    unit = queues.get(i).take();
+                }
+                if (unit.failure() != null) {
+                    throw new IllegalStateException("reading " + unit.fileName() + " failed", unit.failure());
+                }
+                pruneRemovedSources(file);
+                FileStats stats = file.finish(unit.readNanos());
+                logger.info("loaded {}", stats);
+                loaded.add(stats);
+                onFileLoaded.accept(stats);
+                if (queues.size() < files.size()) {
+                    startReading(files.get(queues.size()), queues, progress, cancelled);
+                }
+            }
+        } finally {
+            cancelled.set(true);
+        }
+        CorpusResult result = new CorpusResult(loaded, Duration.ofNanos(System.nanoTime() - start));
+        logger.info("loaded corpus: {}", result);
+        return result;
+    }
+
+    public static boolean isSupported(Resource resource) {
+        String fileName = resource.getFilename();
+        int dot = fileName != null ? fileName.lastIndexOf('.') : -1;
+        return dot >= 0 && SUPPORTED_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private void startReading(Resource file, List<BlockingQueue<Unit>> queues, List<FileProgress> progress, AtomicBoolean cancelled) {
+        progress.add(new FileProgress(file.getFilename()));
+        BlockingQueue<Unit> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+        queues.add(queue);
+        this.executor.execute(() -> read(file, queue, cancelled));
+    }
+
+    private void read(Resource file, BlockingQueue<Unit> queue, AtomicBoolean cancelled) {
+        String fileName = file.getFilename();
+        long start = System.nanoTime();
+        try {
+            if (fileName.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                new StreamingPdfDocumentReader(file, this.pdfFormatter).forEachPage(page -> {
+                    String source = fileName + PAGE_SEPARATOR + page.getMetadata().get(StreamingPdfDocumentReader.METADATA_PAGE_NUMBER);
+                    offer(queue, cancelled, new Unit(fileName, source, this.splitter.apply(List.of(page)), page.getContent().length(), 0, null));
+                });
+            } else {
+                String text = file.getContentAsString(StandardCharsets.UTF_8);
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put(StreamingPdfDocumentReader.METADATA_FILE_NAME, fileName);
+                offer(queue, cancelled, new Unit(fileName, fileName, this.splitter.apply(List.of(new Document(text, metadata))), text.length(), 0, null));
+            }
+            offer(queue, cancelled, new Unit(fileName, null, List.of(), 0, System.nanoTime() - start, null));
+        } catch (CancellationException e) {
+            // the load failed elsewhere and nobody is reading the queue any more
+        } catch (Throwable e) {
+            // errors too, e.g. running out of memory on a large PDF: the writer waits for this file's end
+            try {
+                offer(queue, cancelled, new Unit(fileName, null, List.of(), 0, 0, e));
+            } catch (CancellationException ignored) {
+                // the load already failed elsewhere
+            }
+        }
+    }
+
+    /**
+     * Put the unit on the queue, waiting while it is full unless the load has been given up.
+     */
+    private static void offer(BlockingQueue<Unit> queue, AtomicBoolean cancelled, Unit unit) {
+        try {
+            while (!queue.offer(unit, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    private void write(Unit unit, FileProgress file, Set<String> writtenChunks) {
+        List<Document> unique = new ArrayList<>(unit.chunks().size());
+        for (Document chunk : unit.chunks()) {
+            if (writtenChunks.add(textHash(chunk.getContent()))) {
+                unique.add(chunk);
+            }
+        }
+        long start = System.nanoTime();
+        YellowBrickVectorStore.SyncResult result = this.vectorStore.sync(unit.source(), unique);
+        file.writeNanos += System.nanoTime() - start;
+        file.sources.add(unit.source());
+        file.characters += unit.characters();
+        file.chunks += unit.chunks().size();
+        file.duplicateChunks += unit.chunks().size() - unique.size();
+        file.unchanged += result.unchanged();
+        file.written += result.written();
+        file.removed += result.removed();
+    }
+
+    /**
+     * Remove the sources of the file that this load did not produce, e.g. pages a PDF no longer has.
+     */
+    private void pruneRemovedSources(FileProgress file) {
+        for (String source : this.vectorStore.findSources(file.fileName)) {
+            boolean ofThisFile = source.equals(file.fileName) || source.startsWith(file.fileName + PAGE_SEPARATOR);
+            if (ofThisFile && !file.sources.contains(source)) {
+                file.removed += this.vectorStore.sync(source, List.of()).removed();
+            }
+        }
+    }
+
+    private static String textHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * What a reader hands to the writer: the chunks of one source, the end of a file when {@code source}
+     * is null, or the reason reading failed.
+     */
+    private record Unit(String fileName, String source, List<Document> chunks, long characters, long readNanos, Throwable failure) {
+    }
+
+    private static final class FileProgress {
+
+        private final String fileName;
+
+        private final long start = System.nanoTime();
+
+        private final Set<String> sources = new HashSet<>();
+
+        private long characters;
+
+        private int chunks;
+
+        private int duplicateChunks;
+
+        private int unchanged;
+
+        private int written;
+
+        private int removed;
+
+        private long writeNanos;
+
+        private FileProgress(String fileName) {
+            this.fileName = fileName;
+        }
+
+        private FileStats finish(long readNanos) {
+            return new FileStats(this.fileName, this.sources.size(), this.characters, this.chunks, this.duplicateChunks,
+                    this.unchanged, this.written, this.removed, Duration.ofNanos(readNanos), Duration.ofNanos(this.writeNanos),
+                    Duration.ofNanos(System.nanoTime() - this.start));
+        }
+    }
+
+    /**
+     * @param units     the sources the file was synced as: its pages for a PDF, otherwise one
+     * @param readTime  the time spent reading and splitting the file
+     * @param writeTime the time spent syncing its chunks, including embedding them
+     * @param elapsed   the time from queuing the file until all of it was written
+     */
+    public record FileStats(String fileName, int units, long characters, int chunks, int duplicateChunks,
+                            int unchanged, int written, int removed, Duration readTime, Duration writeTime, Duration elapsed) {
+
+        public double chunksPerSecond() {
+            return perSecond(this.chunks, this.elapsed);
+        }
+
+        public double charactersPerSecond() {
+            return perSecond(this.characters, this.elapsed);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d units, %d chunks (%d duplicate, %d unchanged, %d written, %d removed), "
+                            + "read %d ms, write %d ms, %.1f chunks/s, %.0f chars/s",
+                    this.fileName, this.units, this.chunks, this.duplicateChunks, this.unchanged, this.written, this.removed,
+                    this.readTime.toMillis(), this.writeTime.toMillis(), chunksPerSecond(), charactersPerSecond());
+        }
+    }
+
+    public record CorpusResult(List<FileStats> files, Duration elapsed) {
+
+        public long chunks() {
+            return this.files.stream().mapToLong(FileStats::chunks).sum();
+        }
+
+        public long duplicateChunks() {
+            return this.files.stream().mapToLong(FileStats::duplicateChunks).sum();
+        }
+
+        public long written() {
+            return this.files.stream().mapToLong(FileStats::written).sum();
+        }
+
+        public double chunksPerSecond() {
+            return perSecond(chunks(), this.elapsed);
+        }
+
+        public double charactersPerSecond() {
+            return perSecond(this.files.stream().mapToLong(FileStats::characters).sum(), this.elapsed);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d files, %d chunks (%d duplicate, %d written) in %d ms, %.1f chunks/s, %.0f chars/s",
+                    this.files.size(), chunks(), duplicateChunks(), written(), this.elapsed.toMillis(), chunksPerSecond(), charactersPerSecond());
+        }
+    }
+
+    private static double perSecond(long count, Duration elapsed) {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? count * 1e9 / nanos : 0;
+    }
+}
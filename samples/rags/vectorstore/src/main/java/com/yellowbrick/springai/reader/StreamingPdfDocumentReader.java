@@ -0,0 +1,163 @@
+package com.yellowbrick.springai.reader;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads a PDF one page at a time instead of materializing every page up front like
+ * {@code PagePdfDocumentReader#get()}. Text is extracted in a single pass over the page tree and each page
+ * is handed to the caller as soon as it is complete, while PDFBox caches decoded streams in a temporary
+ * file rather than on the heap. Memory use is therefore bounded by a page, or a window of pages, of text
+ * and not by the size of the document.
+ */
+public class StreamingPdfDocumentReader {
+
+    public static final String METADATA_PAGE_NUMBER = "page_number";
+
+    public static final String METADATA_PAGE_COUNT = "page_count";
+
+    public static final String METADATA_FILE_NAME = "file_name";
+
+    /**
+     * Decoded streams are cached in a temporary file only, never on the heap.
+     */
+    static final MemoryUsageSetting STREAM_CACHE = MemoryUsageSetting.setupTempFileOnly();
+
+    private final Resource resource;
+
+    private final ExtractedTextFormatter formatter;
+
+    public StreamingPdfDocumentReader(Resource resource) {
+        this(resource, ExtractedTextFormatter.defaults());
+    }
+
+    public StreamingPdfDocumentReader(Resource resource, ExtractedTextFormatter formatter) {
+        this.resource = resource;
+        this.formatter = formatter;
+    }
+
+    /**
+     * Hand every page with text to the consumer, in page order, as a document carrying its page number,
+     * the page count and the file name.
+     */
+    public void forEachPage(Consumer<Document> consumer) throws IOException {
+        File file = this.resource.isFile() ? this.resource.getFile() : copyToTempFile();
+        try (PDDocument document = Loader.loadPDF(file, STREAM_CACHE.streamCache)) {
+            pageTextStripper(document.getNumberOfPages(), consumer).writeText(document, Writer.nullWriter());
+        } finally {
+            if (!this.resource.isFile()) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    /**
+     * Hand the pages to the consumer in windows of at most {@code pagesPerWindow} pages; only one window is
+     * held at a time.
+     */
+    public void forEachWindow(int pagesPerWindow, Consumer<List<Document>> consumer) throws IOException {
+        List<Document> window = new ArrayList<>(pagesPerWindow);
+        forEachPage(page -> {
+            window.add(page);
+            if (window.size() == pagesPerWindow) {
+                consumer.accept(new ArrayList<>(window));
+                window.clear();
+            }
+        });
+        if (!window.isEmpty()) {
+            consumer.accept(window);
+        }
+    }
+
+    PageTextStripper pageTextStripper(int pageCount, Consumer<Document> consumer) throws IOException {
+        return new PageTextStripper(pageCount, consumer);
+    }
+
+    private File copyToTempFile() throws IOException {
+        Path file = Files.createTempFile("yb-pdf-", ".pdf");
+        try (InputStream in = this.resource.getInputStream()) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file.toFile();
+    }
+
+    /**
+     * Collects the text of the current page in its own buffer and emits it when the page ends.
+     */
+    final class PageTextStripper extends PDFTextStripper {
+
+        private final int pageCount;
+
+        private final Consumer<Document> consumer;
+
+        private final StringWriter page = new StringWriter();
+
+        private Writer documentOutput;
+
+        private int pageNumber;
+
+        private PageTextStripper(int pageCount, Consumer<Document> consumer) throws IOException {
+            this.pageCount = pageCount;
+            this.consumer = consumer;
+            setSortByPosition(true);
+        }
+
+        @Override
+        protected void startPage(PDPage pdPage) throws IOException {
+            this.pageNumber = getCurrentPageNo();
+            this.documentOutput = this.output;
+            this.output = this.page;
+            super.startPage(pdPage);
+        }
+
+        @Override
+        protected void endPage(PDPage pdPage) throws IOException {
+            super.endPage(pdPage);
+            this.output = this.documentOutput;
+            String text = formatter.format(this.page.toString(), this.pageNumber);
+            this.page.getBuffer().setLength(0);
+            if (!text.isBlank()) {
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put(METADATA_PAGE_NUMBER, this.pageNumber);
+                metadata.put(METADATA_PAGE_COUNT, this.pageCount);
+                metadata.put(METADATA_FILE_NAME, String.valueOf(resource.getFilename()));
+                this.consumer.accept(new Document(text, metadata));
+            }
+        }
+
+        /**
+         * The number of the page being read.
+         */
+        int currentPage() {
+            return getCurrentPageNo();
+        }
+
+        /**
+         * The number of characters of page text held, which is only ever the text of the current page.
+         */
+        int bufferedCharacters() {
+            return this.page.getBuffer().length();
+        }
+
+    }
+}
@@ -0,0 +1,35 @@
+package com.yellowbrick.springai.vectorstore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/**
+ * Packs an embedding into a single column value: little-endian float32 values, base64 encoded so the
+ * result can live in a plain VARCHAR column.
+ */
+final class EmbeddingCodec {
+
+    private EmbeddingCodec() {
+    }
+
+    static String encode(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    static float[] decode(String packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(packed)).order(ByteOrder.LITTLE_ENDIAN);
+        float[] embedding = new float[buffer.remaining() / Float.BYTES];
+        buffer.asFloatBuffer().get(embedding);
+        return embedding;
+    }
+
+    /**
+     * Width of the VARCHAR column needed to hold a packed embedding of the given dimensions.
+     */
+    static int encodedLength(int dimensions) {
+        return 4 * ((dimensions * Float.BYTES + 2) / 3);
+    }
+}
@@ -0,0 +1,332 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.springframework.ai.document.Document;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-JVM tier holding the unit-length embeddings and content of the documents searches return most, in
+ * one flat float matrix on or off heap.
+ * <p>
+ * A lookup re-ranks every cached vector exactly, but only answers when the result is provably the one
+ * the warehouse would return. Each warehouse answer is remembered as an anchor: its query {@code a}, the
+ * doc_ids it returned and its lowest returned score {@code s}. Every document outside that set has
+ * {@code cos(a, d) <= s}, so by the triangle inequality on angles it scores at most
+ * {@code cos(max(0, acos(s) - acos(cos(q, a))))} against a new query {@code q}. When all of an anchor's
+ * documents are cached and the cached top-K clears that bound, no uncached document can displace them.
+ * The bound only holds for anchors whose answer came from an exact scan, so approximate warehouse
+ * answers must not be admitted.
+ */
+final class HotVectorCache {
+
+    /**
+     * Number of slots sampled when picking an eviction victim.
+     */
+    private static final int EVICTION_SAMPLES = 16;
+
+    /**
+     * Slack on the coverage bound, absorbing the rounding difference between scores summed in the
+     * warehouse and in the JVM; an uncached document within it of the cached top-K counts as a tie.
+     */
+    private static final double SCORE_TOLERANCE = 1e-6;
+
+    private final long memoryBudgetBytes;
+
+    private final boolean offHeap;
+
+    private final YellowBrickVectorStore.HotCacheEviction eviction;
+
+    private final int maxAnchors;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slotsByDocId = new HashMap<>();
+
+    private final Deque<Anchor> anchors = new ArrayDeque<>();
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private FloatBuffer matrix;
+
+    private int dimensions;
+
+    private int capacity;
+
+    private int size;
+
+    private String[] docIds;
+
+    private Document[] documents;
+
+    private AtomicLongArray lastAccess;
+
+    private AtomicLongArray hits;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    HotVectorCache(long memoryBudgetBytes, boolean offHeap, YellowBrickVectorStore.HotCacheEviction eviction, int maxAnchors) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.offHeap = offHeap;
+        this.eviction = eviction;
+        this.maxAnchors = maxAnchors;
+    }
+
+    /**
+     * Answer a search from the cache if the cached top-K is provably exact.
+     *
+     * @param unitQuery the normalized query embedding
+     * @param threshold the similarity threshold of the request, or a value at or below
+     *                  {@code SIMILARITY_THRESHOLD_ACCEPT_ALL} for none
+     * @return the ranked documents, or null when the search has to go to the warehouse
+     */
+    List<Document> lookup(float[] unitQuery, int topK, double threshold) {
+        this.lock.readLock().lock();
+        try {
+            if (this.size == 0) {
+                return null;
+            }
+            Anchor anchor = closestCoveredAnchor(unitQuery);
+            if (anchor == null) {
+                return null;
+            }
+
+            List<Scored> ranked = topK(unitQuery, topK);
+            double kthScore = ranked.size() == topK ? ranked.get(topK - 1).score() : Double.NEGATIVE_INFINITY;
+            double angleToAnchor = Math.acos(clamp(VectorMath.dot(unitQuery, anchor.query())));
+            double uncachedBound = Math.cos(Math.max(0.0, Math.acos(clamp(anchor.lowestScore())) - angleToAnchor));
+            if (uncachedBound - SCORE_TOLERANCE > Math.max(kthScore, threshold)) {
+                return null;
+            }
+
+            List<Document> results = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                if (scored.score() < threshold) {
+                    break;
+                }
+                touch(scored.slot());
+                Document cached = this.documents[scored.slot()];
+                Map<String, Object> metadata = new HashMap<>(cached.getMetadata());
+                metadata.put(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME, 1.0 - scored.score());
+                results.add(new Document(cached.getId(), cached.getContent(), metadata));
+            }
+            return results;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remember a warehouse answer: cache its documents and keep the query as an anchor.
+     *
+     * @param results the ranked warehouse results, carrying their distance in the metadata
+     * @param embeddings unit-length embeddings of the results by doc_id
+     * @param lowestScore the score no document outside the results can exceed
+     */
+    void admit(float[] unitQuery, List<Document> results, Map<String, float[]> embeddings, double lowestScore) {
+        this.lock.writeLock().lock();
+        try {
+            for (Document document : results) {
+                Integer slot = this.slotsByDocId.get(document.getId());
+                float[] embedding = embeddings.get(document.getId());
+                if (slot != null) {
+                    touch(slot);
+                } else if (embedding != null) {
+                    put(document, embedding);
+                }
+            }
+            this.anchors.addFirst(new Anchor(unitQuery.clone(), results.stream().map(Document::getId).toList(), lowestScore));
+            while (this.anchors.size() > this.maxAnchors) {
+                this.anchors.removeLast();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(String docId) {
+        this.lock.readLock().lock();
+        try {
+            return this.slotsByDocId.containsKey(docId);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forget all anchors, because documents were added that may outrank what they returned. The cached
+     * vectors stay valid.
+     */
+    void invalidateAnchors() {
+        this.lock.writeLock().lock();
+        try {
+            this.anchors.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Collection<String> removedDocIds) {
+        this.lock.writeLock().lock();
+        try {
+            for (String docId : removedDocIds) {
+                Integer slot = this.slotsByDocId.get(docId);
+                if (slot != null) {
+                    release(slot);
+                }
+            }
+            this.anchors.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private Anchor closestCoveredAnchor(float[] unitQuery) {
+        Anchor closest = null;
+        double closestScore = Double.NEGATIVE_INFINITY;
+        for (Anchor anchor : this.anchors) {
+            double score = VectorMath.dot(unitQuery, anchor.query());
+            if (score > closestScore && this.slotsByDocId.keySet().containsAll(anchor.docIds())) {
+                closest = anchor;
+                closestScore = score;
+            }
+        }
+        return closest;
+    }
+
+    private List<Scored> topK(float[] unitQuery, int topK) {
+        List<Scored> best = new ArrayList<>(topK + 1);
+        Comparator<Scored> byScoreDescending = Comparator.comparingDouble(Scored::score).reversed();
+        for (int slot = 0; slot < this.size; slot++) {
+            double score = dot(slot, unitQuery);
+            if (best.size() < topK || score > best.get(best.size() - 1).score()) {
+                best.add(new Scored(slot, score));
+                best.sort(byScoreDescending);
+                if (best.size() > topK) {
+                    best.remove(best.size() - 1);
+                }
+            }
+        }
+        return best;
+    }
+
+    private double dot(int slot, float[] vector) {
+        int offset = slot * this.dimensions;
+        double sum = 0.0;
+        for (int d = 0; d < this.dimensions; d++) {
+            sum += this.matrix.get(offset + d) * vector[d];
+        }
+        return sum;
+    }
+
+    private void put(Document document, float[] embedding) {
+        if (this.matrix == null) {
+            allocate(embedding.length);
+        }
+        if (embedding.length != this.dimensions || this.capacity == 0) {
+            return;
+        }
+        if (this.size == this.capacity) {
+            release(victim());
+        }
+        int slot = this.size++;
+        this.slotsByDocId.put(document.getId(), slot);
+        Map<String, Object> metadata = new LinkedHashMap<>(document.getMetadata());
+        metadata.remove(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME);
+        this.docIds[slot] = document.getId();
+        this.documents[slot] = new Document(document.getId(), document.getContent(), metadata);
+        this.hits.set(slot, 0);
+        this.matrix.put(slot * this.dimensions, embedding);
+        touch(slot);
+    }
+
+    /**
+     * Record that the document in the slot was returned. Lookups call this under the read lock, so the
+     * access state is updated atomically rather than guarded by the lock.
+     */
+    private void touch(int slot) {
+        this.lastAccess.set(slot, this.clock.incrementAndGet());
+        this.hits.incrementAndGet(slot);
+    }
+
+    private void allocate(int dimensions) {
+        this.dimensions = dimensions;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE / Float.BYTES / dimensions, this.memoryBudgetBytes / ((long) dimensions * Float.BYTES));
+        this.matrix = this.offHeap
+                ? ByteBuffer.allocateDirect(this.capacity * dimensions * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer()
+                : FloatBuffer.wrap(new float[this.capacity * dimensions]);
+        this.docIds = new String[this.capacity];
+        this.documents = new Document[this.capacity];
+        this.lastAccess = new AtomicLongArray(this.capacity);
+        this.hits = new AtomicLongArray(this.capacity);
+    }
+
+    /**
+     * Sampled eviction: the least recently used or least frequently returned of a few random slots.
+     */
+    private int victim() {
+        int victim = this.random.nextInt(this.size);
+        for (int i = 1; i < EVICTION_SAMPLES; i++) {
+            int candidate = this.random.nextInt(this.size);
+            AtomicLongArray rank = this.eviction == YellowBrickVectorStore.HotCacheEviction.LFU ? this.hits : this.lastAccess;
+            if (rank.get(candidate) < rank.get(victim)) {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Free a slot by moving the last occupied slot into it, keeping the matrix dense.
+     */
+    private void release(int slot) {
+        this.slotsByDocId.remove(this.docIds[slot]);
+        int last = --this.size;
+        if (slot != last) {
+            float[] moved = new float[this.dimensions];
+            this.matrix.get(last * this.dimensions, moved);
+            this.matrix.put(slot * this.dimensions, moved);
+            this.docIds[slot] = this.docIds[last];
+            this.documents[slot] = this.documents[last];
+            this.lastAccess.set(slot, this.lastAccess.get(last));
+            this.hits.set(slot, this.hits.get(last));
+            this.slotsByDocId.put(this.docIds[slot], slot);
+        }
+        this.docIds[last] = null;
+        this.documents[last] = null;
+    }
+
+    private static double clamp(double cosine) {
+        return Math.max(-1.0, Math.min(1.0, cosine));
+    }
+
+    private record Anchor(float[] query, List<String> docIds, double lowestScore) {
+    }
+
+    private record Scored(int slot, double score) {
+    }
+}
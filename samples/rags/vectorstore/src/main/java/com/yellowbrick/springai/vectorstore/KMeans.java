@@ -0,0 +1,150 @@
+package com.yellowbrick.springai.vectorstore;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Spherical k-means over unit-length vectors: points are assigned to the centroid with the largest dot
+ * product and centroids are re-normalized after every update, which matches the cosine scoring of the store.
+ */
+final class KMeans {
+
+    private KMeans() {
+    }
+
+    /**
+     * @param vectors unit-length training vectors of equal dimensions
+     * @param k number of clusters; capped at the number of vectors
+     * @param maxIterations upper bound on Lloyd iterations, training stops earlier once assignments settle
+     * @param seed seed of the k-means++ draws; the same vectors and seed give the same centroids
+     * @return unit-length centroids
+     */
+    static float[][] train(List<float[]> vectors, int k, int maxIterations, long seed) {
+        if (vectors.isEmpty()) {
+            return new float[0][];
+        }
+        k = Math.min(k, vectors.size());
+        int dimensions = vectors.get(0).length;
+        SplittableRandom random = new SplittableRandom(seed);
+        float[][] centroids = seed(vectors, k, random);
+        int[] assignment = new int[vectors.size()];
+        Arrays.fill(assignment, -1);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < vectors.size(); i++) {
+                int nearest = nearest(centroids, vectors.get(i));
+                if (nearest != assignment[i]) {
+                    assignment[i] = nearest;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                break;
+            }
+
+            double[][] sums = new double[k][dimensions];
+            int[] counts = new int[k];
+            for (int i = 0; i < vectors.size(); i++) {
+                float[] vector = vectors.get(i);
+                double[] sum = sums[assignment[i]];
+                for (int d = 0; d < dimensions; d++) {
+                    sum[d] += vector[d];
+                }
+                counts[assignment[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                // an empty cluster is restarted from a random point rather than left behind
+                centroids[c] = counts[c] == 0 ? vectors.get(random.nextInt(vectors.size())).clone() : toUnit(sums[c]);
+            }
+        }
+        return centroids;
+    }
+
+    /**
+     * Index of the centroid closest to the vector.
+     */
+    static int nearest(float[][] centroids, float[] vector) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            double score = VectorMath.dot(centroids[c], vector);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Indexes of the {@code n} centroids closest to the vector, closest first.
+     */
+    static int[] nearest(float[][] centroids, float[] vector, int n) {
+        n = Math.min(n, centroids.length);
+        int[] best = new int[n];
+        double[] bestScores = new double[n];
+        Arrays.fill(bestScores, Double.NEGATIVE_INFINITY);
+        for (int c = 0; c < centroids.length; c++) {
+            double score = VectorMath.dot(centroids[c], vector);
+            if (score <= bestScores[n - 1]) {
+                continue;
+            }
+            int position = n - 1;
+            while (position > 0 && bestScores[position - 1] < score) {
+                bestScores[position] = bestScores[position - 1];
+                best[position] = best[position - 1];
+                position--;
+            }
+            bestScores[position] = score;
+            best[position] = c;
+        }
+        return best;
+    }
+
+    /**
+     * k-means++ seeding: each further centroid is drawn with probability proportional to its cosine
+     * distance from the closest centroid picked so far.
+     */
+    private static float[][] seed(List<float[]> vectors, int k, SplittableRandom random) {
+        float[][] centroids = new float[k][];
+        centroids[0] = vectors.get(random.nextInt(vectors.size())).clone();
+        double[] distances = new double[vectors.size()];
+        Arrays.fill(distances, Double.MAX_VALUE);
+
+        for (int c = 1; c < k; c++) {
+            double total = 0.0;
+            for (int i = 0; i < vectors.size(); i++) {
+                distances[i] = Math.min(distances[i], Math.max(0.0, 1.0 - VectorMath.dot(centroids[c - 1], vectors.get(i))));
+                total += distances[i];
+            }
+            int picked = random.nextInt(vectors.size());
+            if (total > 0.0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < vectors.size(); i++) {
+                    target -= distances[i];
+                    if (target <= 0.0) {
+                        picked = i;
+                        break;
+                    }
+                }
+            }
+            centroids[c] = vectors.get(picked).clone();
+        }
+        return centroids;
+    }
+
+    private static float[] toUnit(double[] sum) {
+        double norm = 0.0;
+        for (double value : sum) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[sum.length];
+        for (int d = 0; d < sum.length; d++) {
+            unit[d] = norm == 0.0 ? 0.0f : (float) (sum[d] / norm);
+        }
+        return unit;
+    }
+}
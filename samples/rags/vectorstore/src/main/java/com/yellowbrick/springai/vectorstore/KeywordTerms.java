@@ -0,0 +1,62 @@
+package com.yellowbrick.springai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns a query into the terms the keyword side of a hybrid search matches against the stored text.
+ * Terms are whitespace-separated tokens stripped of surrounding punctuation and lower-cased, so policy
+ * codes such as {@code HR-104} or {@code 4.2.1} survive intact. Common words and tokens shorter than three
+ * characters are dropped unless they contain a digit.
+ */
+final class KeywordTerms {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "your", "our", "can", "was", "were", "has", "have",
+            "had", "what", "when", "where", "which", "who", "why", "how", "does", "did", "this", "that", "these",
+            "those", "with", "from", "about", "into", "there", "their", "they", "them", "then", "than", "will",
+            "would", "should", "could", "may", "any", "all", "its", "also", "tell");
+
+    private KeywordTerms() {
+    }
+
+    /**
+     * @return at most {@code maxTerms} distinct terms in query order
+     */
+    static List<String> extract(String query, int maxTerms) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : query.split("\\s+")) {
+            String term = strip(token).toLowerCase(Locale.ROOT);
+            boolean hasDigit = term.chars().anyMatch(Character::isDigit);
+            if ((term.length() >= 3 || (hasDigit && term.length() >= 2)) && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+                if (terms.size() == maxTerms) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * A {@code LIKE} pattern matching the term anywhere, with {@code \} as the escape character.
+     */
+    static String likePattern(String term) {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static String strip(String token) {
+        int from = 0;
+        int to = token.length();
+        while (from < to && !Character.isLetterOrDigit(token.charAt(from))) {
+            from++;
+        }
+        while (to > from && !Character.isLetterOrDigit(token.charAt(to - 1))) {
+            to--;
+        }
+        return token.substring(from, to);
+    }
+}
@@ -0,0 +1,163 @@
+package com.yellowbrick.springai.vectorstore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Converts document metadata to and from the JSON stored in the {@code metadata} column. The reader and
+ * writer are immutable and shared by every thread, so no mapper is configured per call.
+ */
+final class MetadataCodec {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final ObjectReader READER = OBJECT_MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+    });
+
+    private static final ObjectWriter WRITER = OBJECT_MAPPER.writer();
+
+    private MetadataCodec() {
+    }
+
+    /**
+     * The metadata as JSON with its keys in sorted order, so that the text does not depend on map
+     * iteration order and can be hashed as well as stored.
+     */
+    static String encode(Map<String, Object> metadata) {
+        try {
+            return WRITER.writeValueAsString(metadata instanceof TreeMap<String, Object> ? metadata : new TreeMap<>(metadata));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<String, Object> decode(String json) {
+        try {
+            return READER.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<String, Object> decode(String json, Timer timer) {
+        return timer != null ? timer.record(() -> decode(json)) : decode(json);
+    }
+
+    /**
+     * Metadata that is only parsed from {@code json} when it is first read. Like any map, {@code put}
+     * returns the previous value and therefore parses the stored entries; use
+     * {@link #add(Map, String, Object)} to add an entry without parsing.
+     */
+    static Map<String, Object> decodeLazily(String json) {
+        return decodeLazily(json, null);
+    }
+
+    /**
+     * @param timer records the parse when it happens, may be null
+     */
+    static Map<String, Object> decodeLazily(String json, Timer timer) {
+        return new LazyMetadata(json, timer);
+    }
+
+    /**
+     * Put an entry, e.g. the distance of a search result, without parsing lazily decoded metadata for the
+     * previous value; the entry takes precedence over a stored one of the same key.
+     */
+    static void add(Map<String, Object> metadata, String key, Object value) {
+        if (metadata instanceof LazyMetadata lazy) {
+            lazy.add(key, value);
+        } else {
+            metadata.put(key, value);
+        }
+    }
+
+    private static final class LazyMetadata extends AbstractMap<String, Object> {
+
+        private final String json;
+
+        private final Timer timer;
+
+        private final Map<String, Object> added = new HashMap<>(2);
+
+        private Map<String, Object> decoded;
+
+        private LazyMetadata(String json, Timer timer) {
+            this.json = json;
+            this.timer = timer;
+        }
+
+        private synchronized Map<String, Object> decoded() {
+            if (this.decoded == null) {
+                Map<String, Object> metadata = decode(this.json, this.timer);
+                metadata.putAll(this.added);
+                this.decoded = metadata;
+            }
+            return this.decoded;
+        }
+
+        @Override
+        public synchronized Object get(Object key) {
+            if (this.decoded == null && this.added.containsKey(key)) {
+                return this.added.get(key);
+            }
+            return decoded().get(key);
+        }
+
+        @Override
+        public synchronized Object put(String key, Object value) {
+            Object previous = get(key);
+            add(key, value);
+            return previous;
+        }
+
+        private synchronized void add(String key, Object value) {
+            if (this.decoded == null) {
+                this.added.put(key, value);
+            } else {
+                this.decoded.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return decoded().containsKey(key);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return decoded().remove(key);
+        }
+
+        @Override
+        public int size() {
+            return decoded().size();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return decoded().keySet();
+        }
+
+        @Override
+        public Collection<Object> values() {
+            return decoded().values();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return decoded().entrySet();
+        }
+    }
+}
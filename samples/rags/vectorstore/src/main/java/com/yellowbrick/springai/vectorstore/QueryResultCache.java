@@ -0,0 +1,161 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers query embeddings and search results so that repeated questions reach neither the embedding
+ * model nor the warehouse.
+ * <p>
+ * Embeddings are keyed by the exact query text and outlive changes to the store. Results are keyed by the
+ * query text and the search parameters, and are reused for a different text with the same parameters when
+ * its embedding is within the similarity threshold of a cached query. Both maps expire entries after the
+ * TTL and evict the least recently used entry beyond the size limit; results are dropped whenever the
+ * store changes.
+ */
+final class QueryResultCache {
+
+    private final Duration ttl;
+
+    private final double similarityThreshold;
+
+    private final Clock clock;
+
+    private final Map<String, Entry<float[]>> embeddings;
+
+    private final Map<ResultKey, Entry<CachedResults>> results;
+
+    /**
+     * Bumped on every invalidation, so results of a search that overlapped a change are not cached.
+     */
+    private long generation;
+
+    /**
+     * @param similarityThreshold minimum cosine similarity between query embeddings to reuse results;
+     *                            above 1 only identical texts share results
+     */
+    QueryResultCache(int maxEntries, Duration ttl, double similarityThreshold, Clock clock) {
+        this.ttl = ttl;
+        this.similarityThreshold = similarityThreshold;
+        this.clock = clock;
+        this.embeddings = lruMap(maxEntries);
+        this.results = lruMap(maxEntries);
+    }
+
+    synchronized float[] getEmbedding(String query) {
+        Entry<float[]> entry = live(this.embeddings, query);
+        return entry != null ? entry.value() : null;
+    }
+
+    synchronized void putEmbedding(String query, float[] embedding) {
+        this.embeddings.put(query, new Entry<>(embedding, expiry()));
+    }
+
+    /**
+     * Results cached for exactly this query text and these parameters.
+     */
+    synchronized List<Document> getResults(String query, int topK, double threshold, Filter.Expression filter) {
+        Entry<CachedResults> entry = live(this.results, new ResultKey(query, topK, threshold, filter));
+        return entry != null ? copy(entry.value().documents()) : null;
+    }
+
+    /**
+     * Results cached for the query with the same parameters whose embedding is most similar to this one,
+     * if any is within the similarity threshold.
+     */
+    synchronized List<Document> getSimilarResults(float[] unitQuery, int topK, double threshold, Filter.Expression filter) {
+        long now = this.clock.millis();
+        CachedResults closest = null;
+        double closestSimilarity = this.similarityThreshold;
+        for (Map.Entry<ResultKey, Entry<CachedResults>> cached : this.results.entrySet()) {
+            ResultKey key = cached.getKey();
+            Entry<CachedResults> entry = cached.getValue();
+            if (entry.expiresAt() <= now || key.topK() != topK || key.threshold() != threshold || !Objects.equals(key.filter(), filter)) {
+                continue;
+            }
+            double similarity = VectorMath.dot(unitQuery, entry.value().unitQuery());
+            if (similarity >= closestSimilarity) {
+                closest = entry.value();
+                closestSimilarity = similarity;
+            }
+        }
+        return closest != null ? copy(closest.documents()) : null;
+    }
+
+    synchronized long generation() {
+        return this.generation;
+    }
+
+    /**
+     * @param generation the {@link #generation()} read before the search started
+     */
+    synchronized void putResults(String query, float[] unitQuery, int topK, double threshold, Filter.Expression filter, List<Document> documents, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        this.results.put(new ResultKey(query, topK, threshold, filter), new Entry<>(new CachedResults(unitQuery, copy(documents)), expiry()));
+    }
+
+    /**
+     * Drop all cached results because the store changed. Query embeddings stay valid.
+     */
+    synchronized void invalidateResults() {
+        this.results.clear();
+        this.generation++;
+    }
+
+    private <K, V> Entry<V> live(Map<K, Entry<V>> map, K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && entry.expiresAt() <= this.clock.millis()) {
+            map.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private long expiry() {
+        return this.clock.millis() + this.ttl.toMillis();
+    }
+
+    static List<Document> copy(List<Document> documents) {
+        List<Document> copies = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            copies.add(copy(document));
+        }
+        return copies;
+    }
+
+    /**
+     * A document callers may change without affecting the original, or the cache.
+     */
+    static Document copy(Document document) {
+        return new Document(document.getId(), document.getContent(), new HashMap<>(document.getMetadata()));
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private record ResultKey(String query, int topK, double threshold, Filter.Expression filter) {
+    }
+
+    private record CachedResults(float[] unitQuery, List<Document> documents) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.yellowbrick.springai.vectorstore;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the action and every caller that
+ * arrives while it runs waits for and shares its outcome, value or exception, instead of running the
+ * action again. The first caller gets the value itself and every waiter a copy of its own, taken from a
+ * snapshot made before the first caller could change it, so no caller sees another's changes. Nothing is
+ * remembered once the action completes, so a later call runs it afresh.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+
+    private final Counter coalesced;
+
+    private final UnaryOperator<V> copy;
+
+    /**
+     * @param executed  counts calls that ran the action
+     * @param coalesced counts calls that shared the outcome of a running one
+     * @param copy      copies a value deeply enough that changing the copy leaves the original alone
+     */
+    SingleFlight(Counter executed, Counter coalesced, UnaryOperator<V> copy) {
+        this.executed = executed;
+        this.coalesced = coalesced;
+        this.copy = copy;
+    }
+
+    V execute(K key, Supplier<V> action) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = this.flights.putIfAbsent(key, flight);
+        if (running != null) {
+            this.coalesced.increment();
+            return this.copy.apply(await(running));
+        }
+        this.executed.increment();
+        try {
+            V value = action.get();
+            flight.complete(this.copy.apply(value));
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.flights.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
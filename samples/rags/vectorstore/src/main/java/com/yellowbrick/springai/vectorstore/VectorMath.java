@@ -0,0 +1,64 @@
+package com.yellowbrick.springai.vectorstore;
+
+/**
+ * Similarity arithmetic for the code paths that score embeddings in the JVM.
+ */
+final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    static double dot(float[] a, float[] b) {
+        int length = Math.min(a.length, b.length);
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static double norm(float[] a) {
+        return Math.sqrt(dot(a, a));
+    }
+
+    static double cosine(float[] a, float[] b) {
+        double denominator = norm(a) * norm(b);
+        return denominator == 0.0 ? 0.0 : dot(a, b) / denominator;
+    }
+
+    /**
+     * Copy of the vector scaled to unit length; a zero vector is returned unchanged.
+     */
+    static float[] normalize(float[] a) {
+        double norm = norm(a);
+        if (norm == 0.0) {
+            return a.clone();
+        }
+        float[] normalized = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            normalized[i] = (float) (a[i] / norm);
+        }
+        return normalized;
+    }
+
+    /**
+     * The vector scaled so that its largest magnitude becomes 127 and rounded to integers. Cosine
+     * similarity is scale invariant, so the result can be scored against a query without keeping the
+     * scale.
+     */
+    static byte[] quantizeInt8(float[] a) {
+        float max = 0f;
+        for (float value : a) {
+            max = Math.max(max, Math.abs(value));
+        }
+        byte[] quantized = new byte[a.length];
+        if (max == 0f) {
+            return quantized;
+        }
+        float scale = 127f / max;
+        for (int i = 0; i < a.length; i++) {
+            quantized[i] = (byte) Math.round(a[i] * scale);
+        }
+        return quantized;
+    }
+}
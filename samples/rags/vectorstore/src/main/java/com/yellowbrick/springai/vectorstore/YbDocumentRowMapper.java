@@ -0,0 +1,46 @@
+package com.yellowbrick.springai.vectorstore;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Maps a search result row {@code (doc_id, text, metadata, score)} to a {@link Document} carrying its
+ * cosine distance under {@link YellowBrickVectorStore#DISTANCE_METADATA_FIELD_NAME}. Each column is read
+ * once and the metadata JSON is parsed by a shared reader, or, with lazy metadata, only when a caller
+ * first reads an entry other than the distance. Stateless and safe to share.
+ */
+public final class YbDocumentRowMapper implements RowMapper<Document> {
+
+    private final boolean lazyMetadata;
+
+    private final Timer metadataDecode;
+
+    public YbDocumentRowMapper(boolean lazyMetadata) {
+        this(lazyMetadata, null);
+    }
+
+    /**
+     * @param metadataDecode records every metadata parse, may be null
+     */
+    YbDocumentRowMapper(boolean lazyMetadata, Timer metadataDecode) {
+        this.lazyMetadata = lazyMetadata;
+        this.metadataDecode = metadataDecode;
+    }
+
+    @Override
+    public Document mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String docId = rs.getString(1);
+        String text = rs.getString(2);
+        String json = rs.getString(3);
+        double score = rs.getDouble(4);
+        Map<String, Object> metadata = this.lazyMetadata ? MetadataCodec.decodeLazily(json, this.metadataDecode)
+                : MetadataCodec.decode(json, this.metadataDecode);
+        MetadataCodec.add(metadata, YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME, 1.0 - score);
+        return new Document(docId, text, metadata);
+    }
+}
@@ -0,0 +1,154 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionConverter;
+
+import java.util.List;
+
+/**
+ * Converts Spring AI metadata filter expressions into a Yellowbrick SQL predicate over the {@code metadata}
+ * JSON column of the content table. Keys are extracted with {@code ->>}; numeric comparisons cast the
+ * extracted text to {@code DOUBLE PRECISION}, everything else is compared as text. The store converts with
+ * the alias {@code v5} and embeds the predicate in the candidate restriction of its search statements.
+ *
+ * <pre>
+ * country == 'BG' && year >= 2020
+ * v2.doc_id IN (SELECT v5.doc_id FROM vector_store_content v5
+ *     WHERE (v5.metadata::json ->> 'country') = 'BG' AND CAST(v5.metadata::json ->> 'year' AS DOUBLE PRECISION) >= 2020)
+ * </pre>
+ */
+public class YbFilterExpressionConverter implements FilterExpressionConverter {
+
+    private final String contentTableAlias;
+
+    /**
+     * @param contentTableAlias alias of the content table in the query the predicate is embedded in
+     */
+    public YbFilterExpressionConverter(String contentTableAlias) {
+        this.contentTableAlias = contentTableAlias;
+    }
+
+    @Override
+    public String convertExpression(Filter.Expression expression) {
+        StringBuilder context = new StringBuilder();
+        convertOperand(expression, context);
+        return context.toString();
+    }
+
+    private void convertOperand(Filter.Operand operand, StringBuilder context) {
+        if (operand instanceof Filter.Group group) {
+            context.append('(');
+            convertOperand(group.content(), context);
+            context.append(')');
+        } else if (operand instanceof Filter.Expression expression) {
+            doExpression(expression, context);
+        } else {
+            throw new IllegalArgumentException("Expected an expression or group but got: " + operand);
+        }
+    }
+
+    private void doExpression(Filter.Expression expression, StringBuilder context) {
+        switch (expression.type()) {
+            case AND, OR -> {
+                convertOperand(expression.left(), context);
+                context.append(expression.type() == Filter.ExpressionType.AND ? " AND " : " OR ");
+                convertOperand(expression.right(), context);
+            }
+            case NOT -> {
+                context.append("NOT (");
+                convertOperand(expression.left(), context);
+                context.append(')');
+            }
+            case IN, NIN -> doInExpression(expression, context);
+            default -> doComparison(expression, context);
+        }
+    }
+
+    private void doComparison(Filter.Expression expression, StringBuilder context) {
+        Filter.Key key = asKey(expression);
+        Object value = asValue(expression).value();
+
+        doKey(key, value instanceof Number, context);
+        context.append(' ').append(operator(expression.type())).append(' ');
+        doSingleValue(value, context);
+    }
+
+    private void doInExpression(Filter.Expression expression, StringBuilder context) {
+        Filter.Key key = asKey(expression);
+        Object value = asValue(expression).value();
+        List<?> values = value instanceof List<?> list ? list : List.of(value);
+        if (values.isEmpty()) {
+            // nothing is IN an empty list and everything is NOT IN it
+            context.append(expression.type() == Filter.ExpressionType.IN ? "1 = 0" : "1 = 1");
+            return;
+        }
+
+        doKey(key, values.get(0) instanceof Number, context);
+        context.append(expression.type() == Filter.ExpressionType.IN ? " IN (" : " NOT IN (");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                context.append(", ");
+            }
+            doSingleValue(values.get(i), context);
+        }
+        context.append(')');
+    }
+
+    /**
+     * Extract the metadata value for the key. Numeric comparisons need the extracted text cast so that
+     * {@code 10 > 9} holds.
+     */
+    protected void doKey(Filter.Key key, boolean numeric, StringBuilder context) {
+        String extract = this.contentTableAlias + ".metadata::json ->> " + quote(unquote(key.key()));
+        if (numeric) {
+            context.append("CAST(").append(extract).append(" AS DOUBLE PRECISION)");
+        } else {
+            context.append('(').append(extract).append(')');
+        }
+    }
+
+    protected void doSingleValue(Object value, StringBuilder context) {
+        if (value instanceof Number) {
+            context.append(value);
+        } else {
+            context.append(quote(String.valueOf(value)));
+        }
+    }
+
+    private static String operator(Filter.ExpressionType type) {
+        return switch (type) {
+            case EQ -> "=";
+            case NE -> "<>";
+            case GT -> ">";
+            case GTE -> ">=";
+            case LT -> "<";
+            case LTE -> "<=";
+            default -> throw new IllegalArgumentException("Not a comparison operator: " + type);
+        };
+    }
+
+    private static Filter.Key asKey(Filter.Expression expression) {
+        if (expression.left() instanceof Filter.Key key) {
+            return key;
+        }
+        throw new IllegalArgumentException("Left side of " + expression.type() + " must be a key: " + expression);
+    }
+
+    private static Filter.Value asValue(Filter.Expression expression) {
+        if (expression.right() instanceof Filter.Value value) {
+            return value;
+        }
+        throw new IllegalArgumentException("Right side of " + expression.type() + " must be a value: " + expression);
+    }
+
+    private static String quote(String text) {
+        return "'" + text.replace("'", "''") + "'";
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+}
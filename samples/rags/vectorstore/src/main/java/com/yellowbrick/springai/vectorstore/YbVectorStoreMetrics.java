@@ -0,0 +1,167 @@
+package com.yellowbrick.springai.vectorstore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The meters of one {@link YellowBrickVectorStore}, registered once and tagged with the table name and the
+ * {@code yellowbrick} database system. Phase timers publish percentile histograms, so search and ingest
+ * p99 can be computed and alerted on per phase; the ingest counters give documents and rows per second
+ * as rates.
+ */
+final class YbVectorStoreMetrics {
+
+    /**
+     * Where the time of a search or an ingest goes.
+     */
+    enum Phase {
+
+        /** Calling the embedding model for a query that is not cached. */
+        QUERY_EMBEDDING,
+
+        /** Running the scoring statement and fetching its rows, excluding row mapping. */
+        SCORING,
+
+        /** Turning result rows into documents, including eager metadata decoding. */
+        ROW_MAPPING,
+
+        /** Parsing the metadata JSON of a result, eagerly or on first access. */
+        METADATA_DECODE,
+
+        /** Scoring the full-precision embeddings of quantized search candidates in the JVM. */
+        RERANK,
+
+        /** Streaming packed embeddings and scoring them in the JVM. */
+        EMBEDDING_SCAN,
+
+        /** Fetching the content rows of the packed-layout winners. */
+        CONTENT_FETCH,
+
+        /** Fetching the embeddings of search results for the hot-vector cache. */
+        HOT_CACHE_FILL,
+
+        /** Looking up stored content hashes to skip unchanged documents. */
+        CHANGE_DETECTION,
+
+        /** One call to the embedding model while ingesting. */
+        EMBEDDING,
+
+        /** Deleting whatever is stored under the doc_ids of a batch before it is written. */
+        REPLACED_DELETE,
+
+        /** Writing content rows. */
+        CONTENT_WRITE,
+
+        /** Writing embedding rows. */
+        VECTOR_WRITE,
+
+        /** Filing written documents in their IVF lists. */
+        IVF_WRITE,
+
+        /** Deleting documents on request. */
+        DELETE;
+
+        String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+
+    private final Counter documents;
+
+    private final Counter contentRows;
+
+    private final Counter vectorRows;
+
+    private final DistributionSummary batchSize;
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    YbVectorStoreMetrics(MeterRegistry registry, String tableName) {
+        Tags tags = Tags.of("db.system", YellowBrickVectorStore.PROVIDER_NAME, "db.collection.name", tableName);
+        this.registry = registry;
+        this.tags = tags;
+        for (Phase phase : Phase.values()) {
+            this.timers.put(phase, Timer.builder(YellowBrickVectorStore.PHASE_METRIC_NAME)
+                    .description("Time spent in one phase of a vector store search or ingest")
+                    .tags(tags)
+                    .tag("phase", phase.tagValue())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.documents = Counter.builder(YellowBrickVectorStore.INGEST_DOCUMENTS_METRIC_NAME)
+                .description("Documents written")
+                .tags(tags)
+                .register(registry);
+        this.contentRows = Counter.builder(YellowBrickVectorStore.INGEST_ROWS_METRIC_NAME)
+                .description("Rows written")
+                .tags(tags)
+                .tag("table", "content")
+                .register(registry);
+        this.vectorRows = Counter.builder(YellowBrickVectorStore.INGEST_ROWS_METRIC_NAME)
+                .description("Rows written")
+                .tags(tags)
+                .tag("table", "vector")
+                .register(registry);
+        this.batchSize = DistributionSummary.builder(YellowBrickVectorStore.INGEST_BATCH_SIZE_METRIC_NAME)
+                .description("Documents per written batch")
+                .baseUnit("documents")
+                .tags(tags)
+                .register(registry);
+    }
+
+    Timer timer(Phase phase) {
+        return this.timers.get(phase);
+    }
+
+    <T> T time(Phase phase, Supplier<T> action) {
+        return this.timers.get(phase).record(action);
+    }
+
+    void time(Phase phase, Runnable action) {
+        this.timers.get(phase).record(action);
+    }
+
+    void record(Phase phase, long nanos) {
+        this.timers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void batchWritten(int documents, long vectorRows) {
+        this.documents.increment(documents);
+        this.contentRows.increment(documents);
+        this.vectorRows.increment(vectorRows);
+        this.batchSize.record(documents);
+    }
+
+    /**
+     * Coalescing of concurrent calls at one stage of a search, counted as executed or coalesced; the
+     * coalesce ratio is the coalesced count over both.
+     *
+     * @param copy gives each waiter a value of its own, see {@link SingleFlight}
+     */
+    <K, V> SingleFlight<K, V> singleFlight(String stage, UnaryOperator<V> copy) {
+        return new SingleFlight<>(coalesceCounter(stage, "executed"), coalesceCounter(stage, "coalesced"), copy);
+    }
+
+    private Counter coalesceCounter(String stage, String outcome) {
+        return Counter.builder(YellowBrickVectorStore.COALESCE_METRIC_NAME)
+                .description("Concurrent search calls that ran or shared a call already running")
+                .tags(this.tags)
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(this.registry);
+    }
+}
@@ -0,0 +1,485 @@
+package com.yellowbrick.springai.vectorstore;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The statements of one {@link YellowBrickVectorStore}, built once for its table names instead of being
+ * concatenated on every call.
+ * <p>
+ * Statements that take a list of doc_ids come in one text per power-of-two list size; callers bind the
+ * ids and repeat the last one up to {@link #bucket(int) the bucket size}. Together with IVF probes bound as
+ * parameters rather than literals, every search and write without a metadata filter runs one of a few
+ * dozen statement texts, which the driver keeps as server-side prepared statements on each connection
+ * once they reach the {@code prepareThreshold}. Searches with a metadata filter inline the filter and are
+ * built per call.
+ * <p>
+ * With a quantized embedding precision every vector is also kept at full precision, packed in a
+ * {@code _full} table; scans read whole vectors from there instead of reassembling quantized rows.
+ */
+final class YbVectorStoreSql {
+
+    private final String tableName;
+
+    private final String contentTableName;
+
+    private final String ivfCentroidTableName;
+
+    private final String ivfListTableName;
+
+    private final String fullTableName;
+
+    private final boolean packed;
+
+    private final boolean quantized;
+
+    private final String scoreExpression;
+
+    private final String selectDocIdsBySource;
+
+    private final String selectSources;
+
+    private final String copyContent;
+
+    private final String copyEmbeddings;
+
+    private final String copyFullEmbeddings;
+
+    private final String deleteIvfCentroids;
+
+    private final String deleteIvfLists;
+
+    private final String insertIvfCentroid;
+
+    private final String selectIvfCentroids;
+
+    private final Map<String, String> statements = new ConcurrentHashMap<>();
+
+    YbVectorStoreSql(String tableName, YellowBrickVectorStore.EmbeddingLayout embeddingLayout, boolean normalizeEmbeddings) {
+        this(tableName, embeddingLayout, YellowBrickVectorStore.EmbeddingPrecision.DOUBLE, normalizeEmbeddings);
+    }
+
+    YbVectorStoreSql(String tableName, YellowBrickVectorStore.EmbeddingLayout embeddingLayout,
+                     YellowBrickVectorStore.EmbeddingPrecision embeddingPrecision, boolean normalizeEmbeddings) {
+        this.tableName = tableName;
+        this.contentTableName = tableName + "_content";
+        this.ivfCentroidTableName = tableName + "_ivf_centroids";
+        this.ivfListTableName = tableName + "_ivf_lists";
+        this.fullTableName = tableName + "_full";
+        this.packed = embeddingLayout == YellowBrickVectorStore.EmbeddingLayout.PACKED;
+        this.quantized = embeddingPrecision != YellowBrickVectorStore.EmbeddingPrecision.DOUBLE;
+        // int8 values are scaled per vector, so their norm has to be divided out even for unit vectors
+        boolean unitLength = normalizeEmbeddings && embeddingPrecision != YellowBrickVectorStore.EmbeddingPrecision.INT8;
+        this.scoreExpression = unitLength ? "SUM(v1.embedding * v2.embedding)"
+                : "SUM(v1.embedding * v2.embedding) / NULLIF(SQRT(SUM(v2.embedding * v2.embedding)), 0)";
+        this.selectDocIdsBySource = "SELECT doc_id FROM " + this.contentTableName + " WHERE source = ?";
+        this.selectSources = "SELECT DISTINCT source FROM " + this.contentTableName + " WHERE source LIKE ? ESCAPE '\\'";
+        this.copyContent = "COPY " + this.contentTableName + " (doc_id, text, metadata, content_hash, source) FROM STDIN";
+        this.copyEmbeddings = this.packed ? "COPY " + tableName + " (doc_id, embedding) FROM STDIN"
+                : "COPY " + tableName + " (doc_id, embedding_id, embedding) FROM STDIN";
+        this.copyFullEmbeddings = "COPY " + this.fullTableName + " (doc_id, embedding) FROM STDIN";
+        this.deleteIvfCentroids = "DELETE FROM " + this.ivfCentroidTableName;
+        this.deleteIvfLists = "DELETE FROM " + this.ivfListTableName;
+        this.insertIvfCentroid = "INSERT INTO " + this.ivfCentroidTableName + " (centroid_id, embedding) VALUES (?, ?)";
+        this.selectIvfCentroids = "SELECT embedding FROM " + this.ivfCentroidTableName + " ORDER BY centroid_id";
+    }
+
+    /**
+     * The number of doc_ids to bind for a list of {@code size} ids: the next power of two, at most
+     * {@code limit}.
+     */
+    static int bucket(int size, int limit) {
+        return size <= 1 ? 1 : Math.min(Integer.highestOneBit(size - 1) << 1, limit);
+    }
+
+    String tableName() {
+        return this.tableName;
+    }
+
+    String contentTableName() {
+        return this.contentTableName;
+    }
+
+    String ivfCentroidTableName() {
+        return this.ivfCentroidTableName;
+    }
+
+    String ivfListTableName() {
+        return this.ivfListTableName;
+    }
+
+    String fullTableName() {
+        return this.fullTableName;
+    }
+
+    /**
+     * Whether the scan statements return whole packed vectors rather than exploded rows.
+     */
+    boolean scansPacked() {
+        return this.packed || this.quantized;
+    }
+
+    String selectDocIdsBySource() {
+        return this.selectDocIdsBySource;
+    }
+
+    String selectSources() {
+        return this.selectSources;
+    }
+
+    String copyContent() {
+        return this.copyContent;
+    }
+
+    String copyEmbeddings() {
+        return this.copyEmbeddings;
+    }
+
+    String copyFullEmbeddings() {
+        return this.copyFullEmbeddings;
+    }
+
+    String deleteIvfCentroids() {
+        return this.deleteIvfCentroids;
+    }
+
+    String deleteIvfLists() {
+        return this.deleteIvfLists;
+    }
+
+    String insertIvfCentroid() {
+        return this.insertIvfCentroid;
+    }
+
+    String selectIvfCentroids() {
+        return this.selectIvfCentroids;
+    }
+
+    /**
+     * @param ids a bucket size
+     */
+    String selectContentHashes(int ids) {
+        return cached("hashes:" + ids, () -> "SELECT doc_id, content_hash FROM " + this.contentTableName +
+                " WHERE doc_id IN (" + parameters(ids) + ")");
+    }
+
+    /**
+     * @param ids a bucket size
+     */
+    String selectContent(int ids) {
+        return cached("content:" + ids, () -> "SELECT doc_id, text, metadata FROM " + this.contentTableName +
+                " WHERE doc_id IN (" + parameters(ids) + ")");
+    }
+
+    /**
+     * @param ids a bucket size
+     */
+    String deleteByDocIds(String tableName, int ids) {
+        return cached("delete:" + tableName + ":" + ids, () -> "DELETE FROM " + tableName +
+                " WHERE doc_id IN (" + parameters(ids) + ")");
+    }
+
+    /**
+     * A multi-row INSERT of {@code rows} rows. Only full statements are cached, one per table and row
+     * count; the shorter statement that writes the remainder of a batch is built per call, so the cache
+     * stays bounded however batch sizes vary.
+     *
+     * @param full whether the caller filled the statement up to the bind parameter limit, as it does all
+     *             but the last statement of a batch
+     */
+    String insert(String tableName, String columns, int columnCount, int rows, boolean full) {
+        Supplier<String> sql = () -> {
+            String row = "(" + parameters(columnCount) + ")";
+            return "INSERT INTO " + tableName + " (" + columns + ") VALUES " + String.join(", ", Collections.nCopies(rows, row));
+        };
+        return full ? cached("insert:" + tableName + ":" + rows, sql) : sql.get();
+    }
+
+    /**
+     * Score the exploded vector rows against the query bound as a {@code VALUES} table and join the top-K
+     * to their content.
+     *
+     * @param filterClause the converted metadata filter, or null
+     * @param probes       the number of IVF lists bound as parameters, 0 without an IVF index
+     */
+    String search(int dimensions, boolean hasThreshold, String filterClause, int probes) {
+        return search(dimensions, 0, hasThreshold, filterClause, probes);
+    }
+
+    /**
+     * Like {@link #search(int, boolean, String, int)}, but with {@code prefixDimensions} above zero in two
+     * stages: a coarse pass scores only the rows of the first {@code prefixDimensions} dimensions against
+     * the query prefix and keeps the best candidates, and the full query is scored against the rows of
+     * those candidates only. The metadata filter and the IVF probes restrict the coarse pass.
+     * <p>
+     * Parameters in order: the query dimensions, then for a prefix search the query prefix dimensions,
+     * the IVF probes and the number of candidates, otherwise the IVF probes; then the similarity threshold
+     * and topK.
+     */
+    String search(int dimensions, int prefixDimensions, boolean hasThreshold, String filterClause, int probes) {
+        Supplier<String> restriction = () -> prefixDimensions > 0
+                ? " WHERE v2.doc_id IN (SELECT v8.doc_id FROM" +
+                "        (SELECT v2.doc_id doc_id," +
+                "                SUM(v1.embedding * v2.embedding) / NULLIF(SQRT(SUM(v2.embedding * v2.embedding)), 0) AS score" +
+                "                FROM " + queryValues(prefixDimensions) + " v1 (embedding_id, embedding)" +
+                "                INNER JOIN " + this.tableName + " v2" +
+                "                ON v1.embedding_id = v2.embedding_id" +
+                "               " + and(candidates(filterClause, probes), "v2.embedding_id < " + prefixDimensions) +
+                "                GROUP BY v2.doc_id" +
+                "                ORDER BY score DESC LIMIT ?" +
+                "        ) v8)"
+                : candidates(filterClause, probes);
+        Supplier<String> sql = () -> " SELECT " +
+                "        v3.doc_id," +
+                "        text," +
+                "         metadata," +
+                "        score" +
+                "  FROM" +
+                "        (SELECT" +
+                "                v2.doc_id doc_id," +
+                "                " + this.scoreExpression + " AS score" +
+                "                FROM" +
+                "                " + queryValues(dimensions) + " v1 (embedding_id, embedding)" +
+                "                INNER JOIN" +
+                "               " + this.tableName + " v2" +
+                "                ON v1.embedding_id = v2.embedding_id" +
+                "               " + restriction.get() +
+                "                GROUP BY v2.doc_id" +
+                (hasThreshold ? "                HAVING " + this.scoreExpression + " >= ?" : "") +
+                "                ORDER BY score DESC LIMIT ?" +
+                "        ) v4" +
+                " INNER JOIN" +
+                " " + this.contentTableName + " v3" +
+                " ON v4.doc_id = v3.doc_id" +
+                " ORDER BY score DESC";
+        return filterClause != null ? sql.get()
+                : cached("search:" + dimensions + ":" + prefixDimensions + ":" + hasThreshold + ":" + probes, sql);
+    }
+
+    /**
+     * Rank the candidates by vector score and, separately, the content rows by the number of keyword
+     * terms their text contains, then fuse the two rankings with reciprocal-rank fusion and join the top-K
+     * to their content. Each result carries its vector score, 0 when it was not scored, and its fused
+     * score.
+     * <p>
+     * Parameters in order: the query dimensions, the IVF probes, the similarity threshold, the term
+     * patterns twice, the RRF rank constant twice, the candidates per ranking twice and topK. Unused terms
+     * are bound as null and match nothing.
+     *
+     * @param filterClause the converted metadata filter, or null; it restricts both rankings
+     * @param probes       the number of IVF lists bound as parameters, 0 without an IVF index
+     * @param terms        a bucket size of keyword terms
+     */
+    String hybridSearch(int dimensions, boolean hasThreshold, String filterClause, int probes, int terms) {
+        Supplier<String> sql = () -> {
+            String matches = String.join(" + ", Collections.nCopies(terms, "CASE WHEN LOWER(v5.text) LIKE ? ESCAPE '\\' THEN 1 ELSE 0 END"));
+            String anyMatch = String.join(" OR ", Collections.nCopies(terms, "LOWER(v5.text) LIKE ? ESCAPE '\\'"));
+            return " WITH scored AS (" +
+                    "        SELECT v2.doc_id doc_id, " + this.scoreExpression + " AS score" +
+                    "        FROM " + queryValues(dimensions) + " v1 (embedding_id, embedding)" +
+                    "        INNER JOIN " + this.tableName + " v2" +
+                    "        ON v1.embedding_id = v2.embedding_id" +
+                    "       " + candidates(filterClause, probes) +
+                    "        GROUP BY v2.doc_id" +
+                    " ), vector_ranked AS (" +
+                    "        SELECT doc_id, ROW_NUMBER() OVER (ORDER BY score DESC, doc_id) AS vector_rank" +
+                    "        FROM scored" +
+                    (hasThreshold ? "        WHERE score >= ?" : "") +
+                    " ), keyword_ranked AS (" +
+                    "        SELECT doc_id, ROW_NUMBER() OVER (ORDER BY keyword_score DESC, doc_id) AS keyword_rank" +
+                    "        FROM (SELECT v5.doc_id doc_id, " + matches + " AS keyword_score" +
+                    "                FROM " + this.contentTableName + " v5" +
+                    "                WHERE (" + anyMatch + ")" +
+                    (filterClause != null ? " AND " + filterClause : "") +
+                    "        ) v8" +
+                    " ), fused AS (" +
+                    "        SELECT COALESCE(v7.doc_id, v8.doc_id) doc_id," +
+                    "                COALESCE(1.0 / (? + v7.vector_rank), 0) + COALESCE(1.0 / (? + v8.keyword_rank), 0) AS rrf_score" +
+                    "        FROM (SELECT doc_id, vector_rank FROM vector_ranked WHERE vector_rank <= ?) v7" +
+                    "        FULL OUTER JOIN (SELECT doc_id, keyword_rank FROM keyword_ranked WHERE keyword_rank <= ?) v8" +
+                    "        ON v7.doc_id = v8.doc_id" +
+                    "        ORDER BY rrf_score DESC LIMIT ?" +
+                    " )" +
+                    " SELECT v3.doc_id, v3.text, v3.metadata, COALESCE(v9.score, 0) AS score, v4.rrf_score" +
+                    " FROM fused v4" +
+                    " INNER JOIN " + this.contentTableName + " v3 ON v4.doc_id = v3.doc_id" +
+                    " LEFT JOIN scored v9 ON v4.doc_id = v9.doc_id" +
+                    " ORDER BY v4.rrf_score DESC";
+        };
+        return filterClause != null ? sql.get() : cached("hybrid:" + dimensions + ":" + hasThreshold + ":" + probes + ":" + terms, sql);
+    }
+
+    /**
+     * The top candidates by the score of the quantized rows, each with its full-precision vector for
+     * re-ranking in the JVM. Parameters: the query dimensions, the IVF probes and the number of
+     * candidates.
+     *
+     * @param filterClause the converted metadata filter, or null
+     * @param probes       the number of IVF lists bound as parameters, 0 without an IVF index
+     */
+    String rerankCandidates(int dimensions, String filterClause, int probes) {
+        Supplier<String> sql = () -> " SELECT v4.doc_id, v7.embedding" +
+                " FROM" +
+                "        (SELECT" +
+                "                v2.doc_id doc_id," +
+                "                " + this.scoreExpression + " AS score" +
+                "                FROM" +
+                "                " + queryValues(dimensions) + " v1 (embedding_id, embedding)" +
+                "                INNER JOIN" +
+                "               " + this.tableName + " v2" +
+                "                ON v1.embedding_id = v2.embedding_id" +
+                "               " + candidates(filterClause, probes) +
+                "                GROUP BY v2.doc_id" +
+                "                ORDER BY score DESC LIMIT ?" +
+                "        ) v4" +
+                " INNER JOIN " + this.fullTableName + " v7" +
+                " ON v4.doc_id = v7.doc_id";
+        return filterClause != null ? sql.get() : cached("rerank:" + dimensions + ":" + probes, sql);
+    }
+
+    /**
+     * Score several queries in one pass over the vector rows and keep the top-K of each with a window
+     * partitioned by query. The queries are bound as one {@code VALUES} table of (query_id, embedding_id,
+     * embedding) rows, and each query's similarity threshold, null for none, and topK as another. Result
+     * rows are those of {@link #search(int, boolean, String, int)} followed by the query_id, ordered by
+     * query and then by score.
+     * <p>
+     * Parameters in order: the dimensions of each query in turn, the IVF probes, then the threshold and
+     * topK of each query in turn. The statement grows with the number of queries and is not cached.
+     *
+     * @param filterClause the converted metadata filter shared by the queries, or null
+     * @param probes       the number of IVF lists bound as parameters, 0 without an IVF index
+     */
+    String batchSearch(int queries, int dimensions, String filterClause, int probes) {
+        StringBuilder values = new StringBuilder("(VALUES ");
+        StringBuilder limits = new StringBuilder("(VALUES ");
+        for (int q = 0; q < queries; q++) {
+            for (int i = 0; i < dimensions; i++) {
+                values.append(q == 0 && i == 0 ? "" : ", ").append('(').append(q).append(", ").append(i).append(", CAST(? AS FLOAT))");
+            }
+            limits.append(q == 0 ? "" : ", ").append('(').append(q).append(", CAST(? AS FLOAT), CAST(? AS INTEGER))");
+        }
+        return " SELECT" +
+                "        v3.doc_id," +
+                "        text," +
+                "        metadata," +
+                "        v4.score," +
+                "        v4.query_id" +
+                "  FROM" +
+                "        (SELECT" +
+                "                v9.query_id query_id," +
+                "                v9.doc_id doc_id," +
+                "                v9.score score," +
+                "                v10.top_k top_k," +
+                "                ROW_NUMBER() OVER (PARTITION BY v9.query_id ORDER BY v9.score DESC) AS query_rank" +
+                "                FROM" +
+                "                (SELECT" +
+                "                        v1.query_id query_id," +
+                "                        v2.doc_id doc_id," +
+                "                        " + this.scoreExpression + " AS score" +
+                "                        FROM" +
+                "                        " + values.append(')') + " v1 (query_id, embedding_id, embedding)" +
+                "                        INNER JOIN" +
+                "                       " + this.tableName + " v2" +
+                "                        ON v1.embedding_id = v2.embedding_id" +
+                "                       " + candidates(filterClause, probes) +
+                "                        GROUP BY v1.query_id, v2.doc_id" +
+                "                ) v9" +
+                "                INNER JOIN " + limits.append(')') + " v10 (query_id, threshold, top_k)" +
+                "                ON v9.query_id = v10.query_id" +
+                "                WHERE v10.threshold IS NULL OR v9.score >= v10.threshold" +
+                "        ) v4" +
+                " INNER JOIN" +
+                " " + this.contentTableName + " v3" +
+                " ON v4.doc_id = v3.doc_id" +
+                " WHERE v4.query_rank <= v4.top_k" +
+                " ORDER BY v4.query_id, v4.score DESC";
+    }
+
+    /**
+     * Stream the stored embeddings of the search candidates, whole vectors or exploded rows ordered by
+     * doc_id.
+     *
+     * @param filterClause the converted metadata filter, or null
+     * @param probes       the number of IVF lists bound as parameters, 0 without an IVF index
+     */
+    String scanCandidates(String filterClause, int probes) {
+        Supplier<String> sql = () -> scan(candidates(filterClause, probes));
+        return filterClause != null ? sql.get() : cached("scan:" + probes, sql);
+    }
+
+    /**
+     * @param ids a bucket size
+     */
+    String scanDocIds(int ids) {
+        return cached("scanDocIds:" + ids, () -> scan(" WHERE v2.doc_id IN (" + parameters(ids) + ")"));
+    }
+
+    String scanSample(int sampleSize) {
+        return scan(" WHERE v2.doc_id IN (SELECT doc_id FROM " + this.contentTableName + " ORDER BY RANDOM() LIMIT " + sampleSize + ")");
+    }
+
+    /**
+     * @param whereClause restriction on the vector table {@code v2}, may be empty
+     */
+    private String scan(String whereClause) {
+        if (this.quantized && !this.packed) {
+            return "SELECT v2.doc_id, v2.embedding FROM " + this.fullTableName + " v2" + whereClause;
+        }
+        return this.packed ? "SELECT v2.doc_id, v2.embedding FROM " + this.tableName + " v2" + whereClause
+                : "SELECT v2.doc_id, v2.embedding_id, v2.embedding FROM " + this.tableName + " v2" + whereClause +
+                " ORDER BY v2.doc_id, v2.embedding_id";
+    }
+
+    /**
+     * Restrict the vector rows {@code v2} to the doc_ids matching the filter and, with probes, to those
+     * filed in the probed IVF lists.
+     *
+     * @return a WHERE clause, or an empty string when every row is a candidate
+     */
+    private String candidates(String filterClause, int probes) {
+        String filter = filterClause != null ? "v2.doc_id IN (SELECT v5.doc_id FROM " + this.contentTableName + " v5 WHERE " + filterClause + ")" : null;
+        String ivf = probes > 0 ? "v2.doc_id IN (SELECT v6.doc_id FROM " + this.ivfListTableName + " v6 WHERE v6.centroid_id IN (" + parameters(probes) + "))" : null;
+        if (filter != null && ivf != null) {
+            return " WHERE " + filter + " AND " + ivf;
+        }
+        return filter != null ? " WHERE " + filter : ivf != null ? " WHERE " + ivf : "";
+    }
+
+    /**
+     * @param whereClause a WHERE clause or an empty string
+     */
+    private static String and(String whereClause, String predicate) {
+        return whereClause.isEmpty() ? " WHERE " + predicate : whereClause + " AND " + predicate;
+    }
+
+    /**
+     * {@code (VALUES (0, ?), (1, ?), ...)} with one bind parameter per query dimension.
+     */
+    private String queryValues(int dimensions) {
+        return cached("values:" + dimensions, () -> {
+            StringBuilder values = new StringBuilder("(VALUES ");
+            for (int i = 0; i < dimensions; i++) {
+                values.append(i == 0 ? "" : ", ").append('(').append(i).append(", CAST(? AS FLOAT))");
+            }
+            return values.append(')').toString();
+        });
+    }
+
+    private String cached(String key, Supplier<String> sql) {
+        // not computeIfAbsent: building a search statement looks up its VALUES table in the same map
+        String statement = this.statements.get(key);
+        if (statement == null) {
+            statement = sql.get();
+            String existing = this.statements.putIfAbsent(key, statement);
+            return existing != null ? existing : statement;
+        }
+        return statement;
+    }
+
+    private static String parameters(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
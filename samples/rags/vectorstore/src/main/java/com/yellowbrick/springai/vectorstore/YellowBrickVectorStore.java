@@ -1,8 +1,12 @@
 package com.yellowbrick.springai.vectorstore;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
@@ -10,311 +14,2311 @@ import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
 
-import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
 import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionConverter;
 import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
 import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
 import org.springframework.ai.vectorstore.observation.VectorStoreObservationConvention;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionManager;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
-public class YellowBrickVectorStore extends AbstractObservationVectorStore implements InitializingBean {
+public class YellowBrickVectorStore extends AbstractObservationVectorStore implements InitializingBean, DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(YellowBrickVectorStore.class);
+
+    /**
+     * Metadata key under which search results carry their cosine distance to the query.
+     */
+    public static final String DISTANCE_METADATA_FIELD_NAME = "distance";
+
+    /**
+     * Metadata key under which hybrid search results carry their reciprocal-rank fusion score.
+     */
+    public static final String HYBRID_SCORE_METADATA_FIELD_NAME = "rrf_score";
+
+    /**
+     * Metadata key naming the source a document was loaded from, stored in the {@code source} column so
+     * that {@link #sync(String, List)} can prune what a source no longer contains.
+     */
+    public static final String SOURCE_METADATA_FIELD_NAME = "source";
+
+    /**
+     * Name of the observation timing every search that consults the hot-vector cache, tagged with its
+     * {@code outcome} (hit or miss).
+     */
+    public static final String HOT_CACHE_OBSERVATION_NAME = "yellowbrick.vector.store.hot.cache";
+
+    /**
+     * Database system reported in observations and metrics.
+     */
+    public static final String PROVIDER_NAME = "yellowbrick";
+
+    /**
+     * Name of the timers recording where searches and ingests spend their time, tagged with the
+     * {@code phase}, the table as {@code db.collection.name} and {@code db.system}. They publish percentile
+     * histograms, so p99 per phase can be queried from the registry.
+     */
+    public static final String PHASE_METRIC_NAME = "yellowbrick.vector.store.phase";
+
+    /**
+     * Name of the counter of documents written.
+     */
+    public static final String INGEST_DOCUMENTS_METRIC_NAME = "yellowbrick.vector.store.ingest.documents";
+
+    /**
+     * Name of the counters of rows written, tagged with the {@code table} (content or vector).
+     */
+    public static final String INGEST_ROWS_METRIC_NAME = "yellowbrick.vector.store.ingest.rows";
+
+    /**
+     * Name of the distribution of documents per written batch.
+     */
+    public static final String INGEST_BATCH_SIZE_METRIC_NAME = "yellowbrick.vector.store.ingest.batch.size";
+
+    /**
+     * Name of the counters of coalesced search calls, tagged with the {@code stage} (embedding or search)
+     * and the {@code outcome}: executed when the call ran, coalesced when it shared a concurrent one.
+     */
+    public static final String COALESCE_METRIC_NAME = "yellowbrick.vector.store.coalesce";
+
+    /**
+     * Default seed of IVF centroid training. It is fixed so that building the index twice over the same
+     * sample yields the same lists; the sampled rows themselves may differ between builds.
+     */
+    public static final long DEFAULT_IVF_SEED = 42L;
+
+    /**
+     * Upper bound on bind parameters the PostgreSQL wire protocol accepts in a single statement.
+     */
+    private static final int MAX_BIND_PARAMETERS = Short.MAX_VALUE;
+
+    /**
+     * Width of the VARCHAR columns that hold packed embeddings.
+     */
+    private static final int PACKED_COLUMN_LENGTH = 64000;
+
+    /**
+     * Number of characters buffered before a chunk is flushed to a COPY stream.
+     */
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Rows fetched per round trip while streaming stored embeddings through the JVM.
+     */
+    private static final int SCAN_FETCH_SIZE = 10000;
+
+    /**
+     * Search results fetched per round trip by {@link #streamSimilaritySearch(SearchRequest)}, small so
+     * that the first results are handed on before a large topK has been transferred.
+     */
+    private static final int STREAM_FETCH_SIZE = 16;
+
+    /**
+     * Most keyword terms a hybrid search matches; further terms of a long query are ignored.
+     */
+    private static final int MAX_KEYWORD_TERMS = 16;
+
     private final JdbcTemplate jdbcTemplate;
     private final BatchingStrategy batchingStrategy;
     private final String vectorTableName;
+    private final String schemaName;
+    private final VectorTableDistribution vectorTableDistribution;
     private final EmbeddingModel embeddingModel;
     private final int maxDocumentBatchSize;
     private final boolean removeExistingVectorStoreTable;
     private final boolean initializeSchema;
-    private final ObjectMapper objectMapper;
+    private final boolean lazyMetadata;
+    private final YbDocumentRowMapper documentRowMapper;
     private final TransactionTemplate transactionTemplate;
+    private final IngestMode ingestMode;
+    private final EmbeddingLayout embeddingLayout;
+    private final EmbeddingPrecision embeddingPrecision;
+    private final int rerankCandidates;
+    private final int prefixDimensions;
+    private final int prefixCandidates;
+    private final boolean normalizeEmbeddings;
+    private final int ivfLists;
+    private final int ivfProbes;
+    private final int ivfTrainingSampleSize;
+    private final int ivfMaxIterations;
+    private final long ivfSeed;
+    private final SearchMode searchMode;
+    private final int hybridRankConstant;
+    private final int hybridCandidates;
+    private final YbVectorStoreSql sql;
+    private final FilterExpressionConverter filterExpressionConverter = new YbFilterExpressionConverter("v5");
+    private final ObservationRegistry observationRegistry;
+    private final YbVectorStoreMetrics metrics;
+
+    /**
+     * In-JVM tier answering searches it provably covers, or null when disabled.
+     */
+    private final HotVectorCache hotVectorCache;
+
+    /**
+     * Query embeddings and results of recent searches, or null when disabled.
+     */
+    private final QueryResultCache queryResultCache;
+
+    /**
+     * Query embeddings and warehouse searches in flight, shared by concurrent identical calls, or null
+     * when coalescing is disabled.
+     */
+    private final SingleFlight<String, float[]> embeddingFlights;
+    private final SingleFlight<SearchKey, List<Document>> searchFlights;
+
+    /**
+     * Threads embedding documents while the caller writes, or null when ingest is sequential.
+     */
+    private final ExecutorService embeddingExecutor;
+    private final int embeddingQueueCapacity;
 
-    private Logger log = LoggerFactory.getLogger(YellowBrickVectorStore.class);
+    /**
+     * Unit-length IVF centroids, or null while no index has been built; searches are exact until then.
+     */
+    private volatile float[][] ivfCentroids;
 
     public YellowBrickVectorStore(String vectorTableName, JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel, boolean initializeSchema, ObservationRegistry observationRegistry, VectorStoreObservationConvention observationConvention, BatchingStrategy batchingStrategy, int maxDocumentBatchSize, PlatformTransactionManager transactionManager) {
-        super(observationRegistry, observationConvention);
-        this.jdbcTemplate = jdbcTemplate;
-        this.embeddingModel = embeddingModel;
-        this.batchingStrategy = batchingStrategy;
-        this.maxDocumentBatchSize = maxDocumentBatchSize;
-        this.vectorTableName = null != vectorTableName && !vectorTableName.isEmpty() ? vectorTableName.trim() : "vector_store";
-        this.initializeSchema = initializeSchema;
-        this.removeExistingVectorStoreTable = true;
-        this.objectMapper = new ObjectMapper();
-        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this(new Builder(jdbcTemplate, embeddingModel, transactionManager)
+                .withVectorTableName(vectorTableName)
+                .withInitializeSchema(initializeSchema)
+                .withObservationRegistry(observationRegistry)
+                .withSearchObservationConvention(observationConvention)
+                .withBatchingStrategy(batchingStrategy)
+                .withMaxDocumentBatchSize(maxDocumentBatchSize));
+    }
+
+    private YellowBrickVectorStore(Builder builder) {
+        super(builder.observationRegistry, builder.searchObservationConvention);
+        this.jdbcTemplate = builder.jdbcTemplate;
+        this.embeddingModel = builder.embeddingModel;
+        this.batchingStrategy = builder.batchingStrategy;
+        this.maxDocumentBatchSize = builder.maxDocumentBatchSize;
+        this.vectorTableName = null != builder.vectorTableName && !builder.vectorTableName.isEmpty() ? builder.vectorTableName.trim() : "vector_store";
+        this.schemaName = null != builder.schemaName && !builder.schemaName.isBlank() ? builder.schemaName.trim() : null;
+        this.vectorTableDistribution = builder.vectorTableDistribution;
+        this.initializeSchema = builder.initializeSchema;
+        this.removeExistingVectorStoreTable = builder.removeExistingVectorStoreTable;
+        this.lazyMetadata = builder.lazyMetadata;
+        this.metrics = new YbVectorStoreMetrics(builder.meterRegistry != null ? builder.meterRegistry : new CompositeMeterRegistry(), this.vectorTableName);
+        this.documentRowMapper = new YbDocumentRowMapper(builder.lazyMetadata, this.metrics.timer(YbVectorStoreMetrics.Phase.METADATA_DECODE));
+        this.transactionTemplate = new TransactionTemplate(builder.transactionManager);
+        this.ingestMode = builder.ingestMode;
+        this.embeddingLayout = builder.embeddingLayout;
+        this.embeddingPrecision = builder.embeddingPrecision;
+        this.rerankCandidates = builder.rerankCandidates;
+        this.prefixDimensions = builder.prefixDimensions;
+        this.prefixCandidates = builder.prefixCandidates;
+        if (this.embeddingLayout == EmbeddingLayout.PACKED && this.embeddingPrecision != EmbeddingPrecision.DOUBLE) {
+            throw new IllegalArgumentException("Embedding precision " + this.embeddingPrecision + " applies to the exploded embedding layout only");
+        }
+        this.normalizeEmbeddings = builder.normalizeEmbeddings;
+        this.ivfLists = builder.ivfLists;
+        this.ivfProbes = builder.ivfProbes;
+        this.ivfTrainingSampleSize = builder.ivfTrainingSampleSize;
+        this.ivfMaxIterations = builder.ivfMaxIterations;
+        this.ivfSeed = builder.ivfSeed;
+        this.searchMode = builder.searchMode;
+        this.hybridRankConstant = builder.hybridRankConstant;
+        this.hybridCandidates = builder.hybridCandidates;
+        this.sql = new YbVectorStoreSql(this.schemaName != null ? this.schemaName + "." + this.vectorTableName : this.vectorTableName,
+                this.embeddingLayout, this.embeddingPrecision, this.normalizeEmbeddings);
+        this.observationRegistry = builder.observationRegistry;
+        this.hotVectorCache = builder.hotCacheMaxBytes > 0
+                ? new HotVectorCache(builder.hotCacheMaxBytes, builder.hotCacheOffHeap, builder.hotCacheEviction, builder.hotCacheAnchors)
+                : null;
+        this.queryResultCache = builder.queryCacheMaxEntries > 0
+                ? new QueryResultCache(builder.queryCacheMaxEntries, builder.queryCacheTtl, builder.queryCacheSimilarityThreshold, Clock.systemUTC())
+                : null;
+        this.embeddingFlights = builder.coalesceSearches ? this.metrics.singleFlight("embedding", float[]::clone) : null;
+        this.searchFlights = builder.coalesceSearches ? this.metrics.singleFlight("search", QueryResultCache::copy) : null;
+        this.embeddingExecutor = builder.embeddingConcurrency > 0 ? Executors.newFixedThreadPool(builder.embeddingConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "yb-embedding-" + this.vectorTableName);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.embeddingQueueCapacity = builder.embeddingQueueCapacity > 0 ? builder.embeddingQueueCapacity : 2 * Math.max(1, builder.embeddingConcurrency);
     }
 
     /**
-     * Add a document to the vector store
+     * Add or update documents, keyed by doc_id. A document whose doc_id is stored with the same content
+     * hash is skipped without being embedded; one stored with a different hash is replaced. Change
+     * detection and embedding run outside any transaction, and every batch of {@code maxDocumentBatchSize}
+     * documents is written in a short transaction of its own that first deletes whatever is stored under
+     * the batch's doc_ids, so a document written concurrently by another add is replaced rather than
+     * duplicated, and a failed embedding call leaves the batches already written in place. With
+     * normalized embeddings every vector is scaled to unit length before it is written, so searches can
+     * score with a plain dot product.
+     * <p>
+     * With an embedding concurrency above zero, embedding and writing are pipelined: embedding batches run
+     * on the embedding threads while the caller thread writes the batches already embedded.
      *
      * @param documents
      */
     @Override
     public void doAdd(List<Document> documents) {
-        this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(), this.batchingStrategy);
-        List<List<Document>> batchedDocuments = this.batchDocuments(documents);
-        batchedDocuments.forEach(this::insertOrUpdateBatch);
+        Set<String> replacedDocIds = new HashSet<>();
+        List<Document> changed = findChangedDocuments(documents, replacedDocIds);
+        embedAndWrite(changed);
+        logger.info("wrote {} of {} documents, {} replaced", changed.size(), documents.size(), replacedDocIds.size());
+        if (!changed.isEmpty()) {
+            documentsChanged(replacedDocIds);
+        }
     }
 
-    private String toJson(Map<String, Object> map) {
-        try {
-            return this.objectMapper.writeValueAsString(map);
-        } catch (JsonProcessingException var3) {
-            JsonProcessingException e = var3;
-            throw new RuntimeException(e);
+    /**
+     * Incrementally re-index one source: afterwards the store holds exactly {@code documents} for it.
+     * Each document gets a doc_id derived from the source and its content hash, so chunks that did not
+     * change keep their id and are skipped without being embedded, new or edited chunks are written, and
+     * stored chunks of the source that are no longer present are deleted. New chunks are written batch by
+     * batch as {@link #doAdd(List)} writes them and the vanished ones are deleted last, so while a sync
+     * runs searches may see the new chunks of the source next to the old. A sync that fails part way is
+     * resumed by running it again: the chunks already written are found unchanged.
+     *
+     * @param source name of the source, e.g. the file the documents were read from
+     */
+    public SyncResult sync(String source, List<Document> documents) {
+        List<Document> identified = withSourceIds(source, documents);
+        Set<String> replacedDocIds = new HashSet<>();
+        List<Document> changed = findChangedDocuments(identified, replacedDocIds);
+        embedAndWrite(changed);
+
+        Set<UUID> current = new HashSet<>();
+        identified.forEach(document -> current.add(UUID.fromString(document.getId())));
+        List<UUID> vanished = this.jdbcTemplate.queryForList(this.sql.selectDocIdsBySource(), UUID.class, source)
+                .stream().filter(docId -> !current.contains(docId)).toList();
+        if (!vanished.isEmpty()) {
+            this.transactionTemplate.executeWithoutResult(status -> deleteDocuments(vanished));
+        }
+
+        SyncResult result = new SyncResult(identified.size() - changed.size(), changed.size(), vanished.size());
+        logger.info("synced source {}: {}", source, result);
+        if (result.written() > 0 || result.removed() > 0) {
+            vanished.forEach(docId -> replacedDocIds.add(docId.toString()));
+            documentsChanged(replacedDocIds);
         }
+        return result;
+    }
+
+    /**
+     * Sources with stored documents whose name starts with {@code prefix}, e.g. the pages synced
+     * separately for one file.
+     */
+    public List<String> findSources(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return this.jdbcTemplate.queryForList(this.sql.selectSources(), String.class, pattern);
     }
 
-    private void insertOrUpdateEmbeddings(float[] embeddings, String doc_id) {
-        String sql = "INSERT INTO " + getContentTableName() + "(doc_id, embedding_id, embedding) VALUES (?, ?,?)";
+    /**
+     * Drop the documents whose stored content hash matches from {@code documents}.
+     *
+     * @param replacedDocIds receives the doc_ids that are stored with a different content hash
+     * @return the documents that need to be embedded and written
+     */
+    private List<Document> findChangedDocuments(List<Document> documents, Set<String> replacedDocIds) {
+        Map<String, String> storedHashes = getStoredContentHashes(documents);
+        List<Document> changed = new ArrayList<>();
+        for (Document document : documents) {
+            String storedHash = storedHashes.get(document.getId());
+            if (storedHash == null) {
+                changed.add(document);
+            } else if (!storedHash.equals(contentHash(document.getContent(), MetadataCodec.encode(document.getMetadata())))) {
+                changed.add(document);
+                replacedDocIds.add(document.getId());
+            }
+        }
+        return changed;
+    }
 
-        this.jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+    private void embedAndWrite(List<Document> documents) {
+        if (this.embeddingExecutor != null) {
+            embedAndWritePipelined(documents);
+        } else {
+            embed(documents);
+            writeBatches(documents);
+        }
+    }
 
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                StatementCreatorUtils.setParameterValue(ps, 1, Integer.MIN_VALUE, UUID.fromString(doc_id));
-                StatementCreatorUtils.setParameterValue(ps, 2, Integer.MIN_VALUE, i);
-                StatementCreatorUtils.setParameterValue(ps, 3, Integer.MIN_VALUE, embeddings[i]);
+    private void embed(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        this.metrics.time(YbVectorStoreMetrics.Phase.EMBEDDING,
+                () -> this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(), this.batchingStrategy));
+        if (this.normalizeEmbeddings) {
+            documents.forEach(document -> document.setEmbedding(VectorMath.normalize(document.getEmbedding())));
+        }
+    }
 
-            }
+    private void writeBatches(List<Document> documents) {
+        this.batchDocuments(documents).forEach(this::insertOrUpdateBatch);
+    }
 
-            @Override
-            public int getBatchSize() {
-                return embeddings.length;
+    /**
+     * Embed the documents in batches of the batching strategy on the embedding threads and write them on
+     * the caller thread as they complete, {@code maxDocumentBatchSize} documents per write. At most
+     * {@code embeddingQueueCapacity} batches are embedding or waiting to be written at any time, so a slow
+     * warehouse holds back the embedding calls instead of piling up embedded documents in memory.
+     */
+    private void embedAndWritePipelined(List<Document> documents) {
+        List<List<Document>> embeddingBatches = this.batchingStrategy.batch(documents);
+        CompletionService<List<Document>> completion = new ExecutorCompletionService<>(this.embeddingExecutor);
+        List<Future<List<Document>>> futures = new ArrayList<>(embeddingBatches.size());
+        List<Document> embedded = new ArrayList<>();
+        int submitted = 0;
+        try {
+            for (int completed = 0; completed < embeddingBatches.size(); completed++) {
+                while (submitted < embeddingBatches.size() && submitted - completed < this.embeddingQueueCapacity) {
+                    List<Document> batch = embeddingBatches.get(submitted++);
+                    futures.add(completion.submit(() -> {
+                        embed(batch);
+                        return batch;
+                    }));
+                }
+                embedded.addAll(completion.take().get());
+                while (embedded.size() >= this.maxDocumentBatchSize) {
+                    List<Document> batch = embedded.subList(0, this.maxDocumentBatchSize);
+                    insertOrUpdateBatch(new ArrayList<>(batch));
+                    batch.clear();
+                }
             }
-        });
+            if (!embedded.isEmpty()) {
+                insertOrUpdateBatch(embedded);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while embedding documents", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Embedding documents failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
 
+    private Map<String, String> getStoredContentHashes(List<Document> documents) {
+        return this.metrics.time(YbVectorStoreMetrics.Phase.CHANGE_DETECTION, () -> selectContentHashes(documents));
     }
 
-    private void insertOrUpdateBatch(List<Document> batch) {
-        String sql = "INSERT INTO " + this.getTableName() + " (doc_id, text, metadata) VALUES (?, ?, ?)";
+    private Map<String, String> selectContentHashes(List<Document> documents) {
+        Map<String, String> hashes = new HashMap<>();
+        for (int from = 0; from < documents.size(); from += MAX_BIND_PARAMETERS) {
+            List<UUID> chunk = documents.subList(from, Math.min(from + MAX_BIND_PARAMETERS, documents.size())).stream()
+                    .map(document -> UUID.fromString(document.getId())).toList();
+            int bucket = YbVectorStoreSql.bucket(chunk.size(), MAX_BIND_PARAMETERS);
+            this.jdbcTemplate.query(this.sql.selectContentHashes(bucket), ps -> bindDocIds(ps, 1, chunk, bucket), rs -> {
+                hashes.put(rs.getString(1), rs.getString(2));
+            });
+        }
+        return hashes;
+    }
 
-        this.jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+    /**
+     * Copies of the documents tagged with the source and identified by the source and their content hash.
+     * Repeated identical chunks are told apart by their occurrence.
+     */
+    private List<Document> withSourceIds(String source, List<Document> documents) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<Document> identified = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.put(SOURCE_METADATA_FIELD_NAME, source);
+            String hash = contentHash(document.getContent(), MetadataCodec.encode(metadata));
+            int occurrence = occurrences.merge(hash, 1, Integer::sum);
+            String docId = UUID.nameUUIDFromBytes((source + '\0' + hash + '\0' + occurrence).getBytes(StandardCharsets.UTF_8)).toString();
+            identified.add(new Document(docId, document.getContent(), metadata));
+        }
+        return identified;
+    }
 
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
+    /**
+     * SHA-256 of the content and the metadata, hex encoded.
+     *
+     * @param metadataJson the metadata as encoded by {@link MetadataCodec#encode(Map)}, keys in sorted order
+     */
+    private static String contentHash(String content, String metadataJson) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(metadataJson.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-                Document document = batch.get(i);
-                String content = document.getContent();
-                String json = toJson(document.getMetadata());
-                float[] embedding = document.getEmbedding();
-                StatementCreatorUtils.setParameterValue(ps, 1, Integer.MIN_VALUE, UUID.fromString(document.getId()));
-                StatementCreatorUtils.setParameterValue(ps, 2, Integer.MIN_VALUE, content);
-                StatementCreatorUtils.setParameterValue(ps, 3, Integer.MIN_VALUE, json);
-                insertOrUpdateEmbeddings(embedding, document.getId());
+    /**
+     * Bring the caches in line after documents were written or deleted.
+     *
+     * @param removedDocIds doc_ids whose stored rows were deleted or replaced
+     */
+    private void documentsChanged(Collection<String> removedDocIds) {
+        if (this.hotVectorCache != null) {
+            // new documents may outrank what earlier searches returned
+            this.hotVectorCache.remove(removedDocIds);
+            this.hotVectorCache.invalidateAnchors();
+        }
+        if (this.queryResultCache != null) {
+            this.queryResultCache.invalidateResults();
+        }
+    }
 
+    /**
+     * Write one batch of documents in a transaction of its own. Whatever is stored under the doc_ids of
+     * the batch is deleted first, the rows of replaced documents as well as rows another writer stored
+     * since the batch was found changed, then the content rows and the embedding rows of the whole batch
+     * are written set-based, either as a handful of multi-row INSERT statements or as one COPY stream per
+     * table. Each of these steps is timed as a phase of its own.
+     *
+     * @param batch
+     */
+    private void insertOrUpdateBatch(List<Document> batch) {
+        float[][] centroids = this.ivfCentroids;
+        List<UUID> docIds = batch.stream().map(document -> UUID.fromString(document.getId())).toList();
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.metrics.time(YbVectorStoreMetrics.Phase.REPLACED_DELETE, () -> deleteDocuments(docIds));
+            if (this.ingestMode == IngestMode.COPY) {
+                this.metrics.time(YbVectorStoreMetrics.Phase.CONTENT_WRITE, () -> copyContentRows(batch));
+                this.metrics.time(YbVectorStoreMetrics.Phase.VECTOR_WRITE, () -> copyEmbeddingRows(batch));
+            } else {
+                this.metrics.time(YbVectorStoreMetrics.Phase.CONTENT_WRITE, () -> insertContentRows(batch));
+                this.metrics.time(YbVectorStoreMetrics.Phase.VECTOR_WRITE, () -> insertEmbeddingRows(batch));
             }
-
-            @Override
-            public int getBatchSize() {
-                return batch.size();
+            if (centroids != null) {
+                this.metrics.time(YbVectorStoreMetrics.Phase.IVF_WRITE, () -> insertIvfAssignments(batch.stream().map(Document::getId).toList(),
+                        batch.stream().mapToInt(document -> KMeans.nearest(centroids, toUnit(document.getEmbedding()))).toArray()));
             }
         });
+        this.metrics.batchWritten(batch.size(), this.embeddingLayout == EmbeddingLayout.PACKED ? batch.size()
+                : batch.stream().mapToLong(document -> document.getEmbedding().length).sum());
+        logger.debug("wrote batch of {} documents using {}", batch.size(), this.ingestMode);
     }
 
-    private List<List<Document>> batchDocuments(List<Document> documents) {
-        List<List<Document>> batches = new ArrayList<>();
+    private void insertContentRows(List<Document> batch) {
+        int rowsPerStatement = MAX_BIND_PARAMETERS / 5;
 
-        for (int i = 0; i < documents.size(); i += this.maxDocumentBatchSize) {
-            batches.add(documents.subList(i, Math.min(i + this.maxDocumentBatchSize, documents.size())));
-        }
+        for (int from = 0; from < batch.size(); from += rowsPerStatement) {
+            List<Document> chunk = batch.subList(from, Math.min(from + rowsPerStatement, batch.size()));
+            String sql = this.sql.insert(getContentTableName(), "doc_id, text, metadata, content_hash, source", 5, chunk.size(),
+                    chunk.size() == rowsPerStatement);
 
-        return batches;
+            this.jdbcTemplate.update(sql, ps -> {
+                int p = 1;
+                for (Document document : chunk) {
+                    String metadata = MetadataCodec.encode(document.getMetadata());
+                    ps.setObject(p++, UUID.fromString(document.getId()));
+                    ps.setString(p++, document.getContent());
+                    ps.setString(p++, metadata);
+                    ps.setString(p++, contentHash(document.getContent(), metadata));
+                    ps.setString(p++, getSource(document));
+                }
+            });
+        }
     }
 
-    @Override
-    public Optional<Boolean> doDelete(List<String> idList) {
-        //AtomicInteger updateCount = new AtomicInteger();
-        //increment atomic integer from inside lambda.
-        long count =  idList.stream()
-                .filter(id-> 1 == this.jdbcTemplate.update("DELETE FROM " + this.getTableName() + " WHERE id = ?", new Object[]{UUID.fromString(id)}))
-                .count();
+    private void insertEmbeddingRows(List<Document> batch) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            insertPackedEmbeddingRows(batch);
+            return;
+        }
+        int from = 0;
 
-        logger.info("records deleted {}",count);
-        //todo total deleted records and return true if total=sizeof(idList)
-        return Optional.of(true);
-    }
+        while (from < batch.size()) {
+            // pack as many whole documents into one statement as the bind parameter limit allows
+            int to = from;
+            int rows = 0;
+            while (to < batch.size() && (rows + batch.get(to).getEmbedding().length) * 3 <= MAX_BIND_PARAMETERS) {
+                rows += batch.get(to).getEmbedding().length;
+                to++;
+            }
+            if (to == from) {
+                throw new IllegalArgumentException("Embedding of document " + batch.get(from).getId() + " has too many dimensions for a single statement");
+            }
 
-    @Override
-    public List<Document> doSimilaritySearch(SearchRequest request) {
-        //create embeddings out of the search request
-        float[] embeddings = this.getQueryEmbedding(request.getQuery());
-        UUID searchDocumentId = UUID.randomUUID();
+            List<Document> chunk = batch.subList(from, to);
+            String sql = this.sql.insert(getTableName(), "doc_id, embedding_id, embedding", 3, rows, to < batch.size());
 
-        List<Document> query = (List<Document>) transactionTemplate.execute(new TransactionCallback() {
-            @Override
-            public Object doInTransaction(TransactionStatus status) {
-                log.info("doing in transaction");
-                createTemporaryTable(searchDocumentId, embeddings);
+            this.jdbcTemplate.update(sql, ps -> {
+                int p = 1;
+                for (Document document : chunk) {
+                    UUID docId = UUID.fromString(document.getId());
+                    float[] embedding = document.getEmbedding();
+                    byte[] quantized = this.embeddingPrecision == EmbeddingPrecision.INT8 ? VectorMath.quantizeInt8(embedding) : null;
+                    for (int i = 0; i < embedding.length; i++) {
+                        ps.setObject(p++, docId);
+                        ps.setShort(p++, (short) i);
+                        if (quantized != null) {
+                            ps.setShort(p++, quantized[i]);
+                        } else {
+                            ps.setFloat(p++, embedding[i]);
+                        }
+                    }
+                }
+            });
+            from = to;
+        }
+        if (this.embeddingPrecision != EmbeddingPrecision.DOUBLE) {
+            insertPackedEmbeddingRows(this.sql.fullTableName(), batch);
+        }
+    }
 
-                insertSearchDocEmbeddings(searchDocumentId, embeddings);
+    private void insertPackedEmbeddingRows(List<Document> batch) {
+        insertPackedEmbeddingRows(getTableName(), batch);
+    }
 
-                List<Document> query = getDocuments(searchDocumentId);
+    private void insertPackedEmbeddingRows(String tableName, List<Document> batch) {
+        int rowsPerStatement = MAX_BIND_PARAMETERS / 2;
 
-                cleanUpTempTable(searchDocumentId);
-                return query;
-            }
+        for (int from = 0; from < batch.size(); from += rowsPerStatement) {
+            List<Document> chunk = batch.subList(from, Math.min(from + rowsPerStatement, batch.size()));
+            String sql = this.sql.insert(tableName, "doc_id, embedding", 2, chunk.size(), chunk.size() == rowsPerStatement);
 
+            this.jdbcTemplate.update(sql, ps -> {
+                int p = 1;
+                for (Document document : chunk) {
+                    ps.setObject(p++, UUID.fromString(document.getId()));
+                    ps.setString(p++, EmbeddingCodec.encode(document.getEmbedding()));
+                }
+            });
+        }
+    }
 
+    private void copyContentRows(List<Document> batch) {
+        copyIn(this.sql.copyContent(), buffer -> {
+            for (Document document : batch) {
+                String metadata = MetadataCodec.encode(document.getMetadata());
+                buffer.append(document.getId()).separator()
+                        .appendText(document.getContent()).separator()
+                        .appendText(metadata).separator()
+                        .append(contentHash(document.getContent(), metadata)).separator()
+                        .appendText(getSource(document)).endRow();
+            }
         });
-        return query;
     }
 
-    private void insertSearchDocEmbeddings(UUID searchDocumentId, float[] embeddings) {
-        String insertTemp = "INSERT INTO "+ getQueryTableName() + " (doc_id, embedding_id, embedding) VALUES (?,?,?)";
-        jdbcTemplate.batchUpdate(insertTemp, new BatchPreparedStatementSetter() {
+    private static String getSource(Document document) {
+        Object source = document.getMetadata().get(SOURCE_METADATA_FIELD_NAME);
+        return source != null ? source.toString() : null;
+    }
 
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                StatementCreatorUtils.setParameterValue(ps, 1, Integer.MIN_VALUE, searchDocumentId.toString());
-                StatementCreatorUtils.setParameterValue(ps, 2, Integer.MIN_VALUE, i);
-                StatementCreatorUtils.setParameterValue(ps, 3, Integer.MIN_VALUE, embeddings[i]);
+    private void copyEmbeddingRows(List<Document> batch) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            copyPackedEmbeddingRows(this.sql.copyEmbeddings(), batch);
+            return;
+        }
+        copyIn(this.sql.copyEmbeddings(), buffer -> {
+            for (Document document : batch) {
+                String docId = document.getId();
+                float[] embedding = document.getEmbedding();
+                if (this.embeddingPrecision == EmbeddingPrecision.INT8) {
+                    byte[] quantized = VectorMath.quantizeInt8(embedding);
+                    for (int i = 0; i < quantized.length; i++) {
+                        buffer.append(docId).separator()
+                                .append(i).separator()
+                                .append((int) quantized[i]).endRow();
+                    }
+                    continue;
+                }
+                for (int i = 0; i < embedding.length; i++) {
+                    buffer.append(docId).separator()
+                            .append(i).separator()
+                            .append(embedding[i]).endRow();
+                }
             }
+        });
+        if (this.embeddingPrecision != EmbeddingPrecision.DOUBLE) {
+            copyPackedEmbeddingRows(this.sql.copyFullEmbeddings(), batch);
+        }
+    }
 
-            @Override
-            public int getBatchSize() {
-                return embeddings.length;
+    private void copyPackedEmbeddingRows(String copySql, List<Document> batch) {
+        copyIn(copySql, buffer -> {
+            for (Document document : batch) {
+                buffer.append(document.getId()).separator()
+                        .append(EmbeddingCodec.encode(document.getEmbedding())).endRow();
             }
         });
     }
 
-    private List<Document> getDocuments(UUID searchDocumentId) {
-        String selectSQL = " SELECT " +
-                "        text," +
-                "         metadata," +
-                "        score" +
-                "  FROM" +
-                "        (SELECT" +
-                "                v2.doc_id doc_id," +
-                "                SUM(v1.embedding * v2.embedding) /" +
-                "                        (SQRT(SUM(v1.embedding * v1.embedding)) *" +
-                "                                SQRT(SUM(v2.embedding * v2.embedding))) AS score" +
-                "                FROM" +
-                "                " + getQueryTableName() +" v1 " +
-                "                INNER JOIN" +
-                "               " + getTableName() +" v2" +
-                "                ON v1.embedding_id = v2.embedding_id" +
-                "                where v1.doc_id = ?" +
-                "                GROUP BY v2.doc_id" +
-                "                ORDER BY score DESC LIMIT 4" +
-                "        ) v4" +
-                " INNER JOIN" +
-                " " + getContentTableName()+" v3" +
-                " ON v4.doc_id = v3.doc_id" +
-                " ORDER BY score DESC";
-
-        List<Document> query = jdbcTemplate.query(selectSQL, new RowMapper<Document>() {
-
-            @Override
-            public Document mapRow(ResultSet rs, int rowNum) throws SQLException {
-                Map<String, Object> result =
-                        null;
-                try {
-                    String res = rs.getString(2);
-                    logger.debug(res);
-                    result = new ObjectMapper().readValue(rs.getString(2), Map.class);
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException(e);
+    private long copyIn(String sql, CopyRowWriter rowWriter) {
+        Long rows = this.jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                CopyBuffer buffer = new CopyBuffer(copyIn);
+                rowWriter.write(buffer);
+                buffer.flush();
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
                 }
-                return new Document(rs.getString(1), result);
             }
-        }, new Object[]{searchDocumentId.toString()});
-        return query;
+        });
+        return rows != null ? rows : 0L;
     }
 
-    private void cleanUpTempTable(UUID searchDocumentId) {
-        String deleteSQL = "DELETE FROM "+ getQueryTableName()+" where doc_id = ?";
-        jdbcTemplate.update(deleteSQL, new Object[]{searchDocumentId.toString()});
+    private List<List<Document>> batchDocuments(List<Document> documents) {
+        List<List<Document>> batches = new ArrayList<>();
+
+        for (int i = 0; i < documents.size(); i += this.maxDocumentBatchSize) {
+            batches.add(documents.subList(i, Math.min(i + this.maxDocumentBatchSize, documents.size())));
+        }
+
+        return batches;
     }
 
-    private void createTemporaryTable(UUID searchDocumentId, float[] embeddings) {
-        String tempTableCreate = String.format(
-                " CREATE TEMPORARY TABLE  %s ( \n" +
-                        "     doc_id UUID,\n" +
-                        "     embedding_id SMALLINT,\n" +
-                        "      embedding FLOAT)\n" +
-                        "  ON COMMIT DROP\n"+
-                        "  DISTRIBUTE REPLICATE\n", getQueryTableName());
-        jdbcTemplate.execute(tempTableCreate);
+    /**
+     * Delete documents with set-based statements: the doc_ids are bound in chunks of up to the bind
+     * parameter limit into {@code DELETE ... WHERE doc_id IN (...)}, against the content table, the vector
+     * table and the IVF lists, all in one transaction.
+     *
+     * @return true when every distinct id matched a stored document
+     */
+    @Override
+    public Optional<Boolean> doDelete(List<String> idList) {
+        List<UUID> docIds = idList.stream().map(UUID::fromString).distinct().toList();
+        long count = this.metrics.time(YbVectorStoreMetrics.Phase.DELETE,
+                () -> this.transactionTemplate.execute(status -> deleteDocuments(docIds)));
 
+        logger.info("records deleted {}",count);
+        documentsChanged(idList);
+        return Optional.of(count == docIds.size());
     }
 
-    private float[] getQueryEmbedding(String query) {
-        float[] embedding = this.embeddingModel.embed(query);
-        return embedding;
+    /**
+     * Delete the rows of the documents from every table. Runs in the caller's transaction.
+     *
+     * @return the number of content rows deleted
+     */
+    private long deleteDocuments(List<UUID> docIds) {
+        if (docIds.isEmpty()) {
+            return 0L;
+        }
+        long contentRows = deleteByDocIds(getContentTableName(), docIds);
+        deleteByDocIds(getTableName(), docIds);
+        if (this.ivfLists > 0) {
+            deleteByDocIds(getIvfListTableName(), docIds);
+        }
+        if (this.embeddingPrecision != EmbeddingPrecision.DOUBLE) {
+            deleteByDocIds(this.sql.fullTableName(), docIds);
+        }
+        return contentRows;
     }
 
-    @Override
-    public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
-        //TODO add operationName to what is part of the observation context.  see https://github.com/spring-projects/spring-ai/issues/1204
-        return VectorStoreObservationContext.builder(VectorStoreProvider.PG_VECTOR.value(), operationName)
-                .withCollectionName(this.vectorTableName);
+    private long deleteByDocIds(String tableName, List<UUID> docIds) {
+        long rows = 0;
+        for (int from = 0; from < docIds.size(); from += MAX_BIND_PARAMETERS) {
+            List<UUID> chunk = docIds.subList(from, Math.min(from + MAX_BIND_PARAMETERS, docIds.size()));
+            int bucket = YbVectorStoreSql.bucket(chunk.size(), MAX_BIND_PARAMETERS);
+            rows += this.jdbcTemplate.update(this.sql.deleteByDocIds(tableName, bucket), ps -> bindDocIds(ps, 1, chunk, bucket));
+        }
+        return rows;
+    }
 
+    @Override
+    public List<Document> doSimilaritySearch(SearchRequest request) {
+        if (this.searchMode == SearchMode.HYBRID) {
+            return hybridSearch(request);
+        }
+        if (this.queryResultCache == null) {
+            return search(this.getQueryEmbedding(request.getQuery()), request);
+        }
+        return searchQueryCache(request);
+    }
 
+    /**
+     * Search like {@link #similaritySearch(SearchRequest)}, but hand each result on as soon as its row has
+     * been fetched and mapped instead of returning a list once all of them are. The search statement is
+     * run through a forward-only cursor with a small fetch size on a {@link Schedulers#boundedElastic()}
+     * thread, so neither embedding the query nor waiting for the warehouse blocks the subscriber. Results
+     * arrive in descending order of similarity; cancelling stops reading the remaining rows.
+     * <p>
+     * Searches answered by the query result cache emit the cached results; on a miss the search streams
+     * and its results are cached once all of them have been emitted. Hybrid and re-ranked searches,
+     * searches the hot-vector cache may answer, and searches of packed embeddings, which rank in the JVM
+     * before any content is fetched, emit their results as one list.
+     * Streamed searches are not observed as vector store queries, but their phases are timed.
+     */
+    public Flux<Document> streamSimilaritySearch(SearchRequest request) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED || this.searchMode == SearchMode.HYBRID || reranks()
+                || (this.hotVectorCache != null && !request.hasFilterExpression())) {
+            return Flux.defer(() -> Flux.fromIterable(similaritySearch(request))).subscribeOn(Schedulers.boundedElastic());
+        }
+        if (this.queryResultCache != null) {
+            return Flux.defer(() -> streamQueryCache(request)).subscribeOn(Schedulers.boundedElastic());
+        }
+        return Flux.<Document>create(sink -> streamDocuments(getQueryEmbedding(request.getQuery()), request, sink))
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
+    /**
+     * The streaming counterpart of {@link #searchQueryCache(SearchRequest)}. A copy of each streamed result
+     * is kept as it is emitted and the copies are cached on completion; a cancelled stream caches nothing.
+     */
+    private Flux<Document> streamQueryCache(SearchRequest request) {
+        long generation = this.queryResultCache.generation();
+        List<Document> cached = this.queryResultCache.getResults(request.getQuery(), request.getTopK(),
+                request.getSimilarityThreshold(), request.getFilterExpression());
+        if (cached != null) {
+            return Flux.fromIterable(cached);
+        }
+
+        float[] embeddings = this.getQueryEmbedding(request.getQuery());
+        float[] unitQuery = VectorMath.normalize(embeddings);
+        cached = this.queryResultCache.getSimilarResults(unitQuery, request.getTopK(),
+                request.getSimilarityThreshold(), request.getFilterExpression());
+        if (cached != null) {
+            return Flux.fromIterable(cached);
+        }
 
-    private String getVectorTableName() {
-        return this.vectorTableName;
+        List<Document> results = new ArrayList<>(request.getTopK());
+        return Flux.<Document>create(sink -> streamDocuments(embeddings, request, sink))
+                .doOnNext(document -> results.add(QueryResultCache.copy(document)))
+                .doOnComplete(() -> this.queryResultCache.putResults(request.getQuery(), unitQuery, request.getTopK(),
+                        request.getSimilarityThreshold(), request.getFilterExpression(), results, generation));
     }
 
-    @Override
-    public void afterPropertiesSet() throws Exception {
-        logger.info("Initializing PGVectorStore schema for table: {}", this.getVectorTableName());
-
-        if (!this.initializeSchema) {
-            logger.debug("Skipping the schema initialization for the table: {}", this.getTableName());
-        } else {
-            if (this.removeExistingVectorStoreTable) {
-                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.getTableName()));
-            }
+    /**
+     * Reuse the results of an earlier search for the same text or, failing that, for a text whose
+     * embedding is within the similarity threshold of this one; search and cache the results otherwise.
+     * Reused results keep the distances of the query they were cached for.
+     */
+    private List<Document> searchQueryCache(SearchRequest request) {
+        long generation = this.queryResultCache.generation();
+        List<Document> cached = this.queryResultCache.getResults(request.getQuery(), request.getTopK(),
+                request.getSimilarityThreshold(), request.getFilterExpression());
+        if (cached != null) {
+            return cached;
+        }
 
-            String c = getTableName() + "_pk_doc_id";
+        float[] embeddings = this.getQueryEmbedding(request.getQuery());
+        float[] unitQuery = VectorMath.normalize(embeddings);
+        cached = this.queryResultCache.getSimilarResults(unitQuery, request.getTopK(),
+                request.getSimilarityThreshold(), request.getFilterExpression());
+        if (cached != null) {
+            return cached;
+        }
 
-            this.jdbcTemplate.execute(String.format("  " +
-                            "              CREATE TABLE IF NOT EXISTS %s (\n" +
-                            "                doc_id UUID NOT NULL,\n" +
-                            "                text VARCHAR(60000) NOT NULL,\n" +
-                            "                metadata VARCHAR(1024) NOT NULL,\n" +
-                            "                CONSTRAINT %s PRIMARY KEY (doc_id))\n" +
-                            "                DISTRIBUTE ON (doc_id) SORT ON (doc_id)"
-                    , this.getContentTableName(), c));
+        List<Document> results = search(embeddings, request);
+        this.queryResultCache.putResults(request.getQuery(), unitQuery, request.getTopK(),
+                request.getSimilarityThreshold(), request.getFilterExpression(), results, generation);
+        return results;
+    }
 
-            this.jdbcTemplate.execute(String.format("  " +
-                            " CREATE TABLE IF NOT EXISTS %s (\n" +
-                            " doc_id UUID NOT NULL,\n" +
-                            " embedding_id SMALLINT NOT NULL,\n" +
-                            " embedding FLOAT NOT NULL)\n"
+    /**
+     * With coalescing enabled, a search with the same query embedding, topK, threshold and filter as one
+     * already running waits for that one and gets a copy of its results instead of querying the warehouse
+     * again.
+     */
+    private List<Document> search(float[] embeddings, SearchRequest request) {
+        if (this.searchFlights != null) {
+            SearchKey key = new SearchKey(embeddings, request.getTopK(), request.getSimilarityThreshold(), request.getFilterExpression());
+            return this.searchFlights.execute(key, () -> searchUncoalesced(embeddings, request));
+        }
+        return searchUncoalesced(embeddings, request);
+    }
 
-                    , getTableName()));
+    private List<Document> searchUncoalesced(float[] embeddings, SearchRequest request) {
+        if (this.hotVectorCache != null && !request.hasFilterExpression()) {
+            return searchHotCache(embeddings, request);
+        }
+        return searchWarehouse(embeddings, request);
+    }
 
+    private List<Document> searchWarehouse(float[] queryEmbedding, SearchRequest request) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            return searchPackedEmbeddings(queryEmbedding, request);
+        }
+        if (reranks()) {
+            return searchReranked(queryEmbedding, request);
         }
+        return getDocuments(queryEmbedding, request);
     }
 
-    private String getTableName() {
-        return this.vectorTableName;
+    private boolean prefixes(int dimensions) {
+        return this.prefixDimensions > 0 && this.prefixDimensions < dimensions;
     }
 
+    private boolean reranks() {
+        return this.embeddingPrecision != EmbeddingPrecision.DOUBLE && this.rerankCandidates > 0;
+    }
 
-    private String getContentTableName() {
-        return this.vectorTableName + "_content";
+    /**
+     * Pick the {@code rerankCandidates} best documents by the score of their quantized rows in SQL, fetch
+     * their full-precision vectors in the same statement and rank those exactly in the JVM. The similarity
+     * threshold applies to the exact scores, and only the content of the final topK is fetched.
+     */
+    private List<Document> searchReranked(float[] queryEmbedding, SearchRequest request) {
+        float[] normalizedQuery = VectorMath.normalize(queryEmbedding);
+        int[] probes = getProbes(normalizedQuery);
+        int candidates = Math.max(request.getTopK(), this.rerankCandidates);
+        double threshold = request.getSimilarityThreshold();
+        boolean hasThreshold = threshold > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+        List<ScoredDocId> scored = new ArrayList<>(candidates);
+        long[] rerankNanos = new long[1];
+
+        long start = System.nanoTime();
+        this.jdbcTemplate.query(this.sql.rerankCandidates(normalizedQuery.length, getFilterClause(request), probes.length),
+                ps -> bindRerankCandidates(ps, normalizedQuery, probes, candidates), rs -> {
+                    long scoreStart = System.nanoTime();
+                    float[] embedding = EmbeddingCodec.decode(rs.getString(2));
+                    double score = this.normalizeEmbeddings ? VectorMath.dot(normalizedQuery, embedding) : VectorMath.cosine(normalizedQuery, embedding);
+                    if (!hasThreshold || score >= threshold) {
+                        scored.add(new ScoredDocId(rs.getString(1), score));
+                    }
+                    rerankNanos[0] += System.nanoTime() - scoreStart;
+                });
+        this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, System.nanoTime() - start - rerankNanos[0]);
+        this.metrics.record(YbVectorStoreMetrics.Phase.RERANK, rerankNanos[0]);
+
+        scored.sort(Comparator.comparingDouble(ScoredDocId::score).reversed());
+        List<ScoredDocId> ranked = scored.subList(0, Math.min(request.getTopK(), scored.size()));
+        return this.metrics.time(YbVectorStoreMetrics.Phase.CONTENT_FETCH, () -> getContent(ranked));
+    }
+
+    private static void bindRerankCandidates(PreparedStatement ps, float[] normalizedQuery, int[] probes, int candidates) throws SQLException {
+        int p = 1;
+        for (float value : normalizedQuery) {
+            ps.setFloat(p++, value);
+        }
+        for (int probe : probes) {
+            ps.setInt(p++, probe);
+        }
+        ps.setInt(p, candidates);
     }
 
-    private String getQueryTableName() {
-        return this.vectorTableName + "_query";
+    /**
+     * Answer from the hot-vector cache when it provably holds the exact top-K, otherwise search the
+     * warehouse and remember the answer if the warehouse scanned exactly. Answers narrowed by IVF lists, a
+     * prefix stage or quantized scores are not admitted: the cache's coverage bound only holds for exact
+     * ones. Both outcomes are timed under {@link #HOT_CACHE_OBSERVATION_NAME},
+     * so the hit rate and the latency saved per hit can be read off the two timers.
+     */
+    private List<Document> searchHotCache(float[] queryEmbedding, SearchRequest request) {
+        float[] unitQuery = VectorMath.normalize(queryEmbedding);
+        boolean hasThreshold = request.getSimilarityThreshold() > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+        Observation observation = Observation.createNotStarted(HOT_CACHE_OBSERVATION_NAME, this.observationRegistry)
+                .lowCardinalityKeyValue("db.collection.name", getTableName())
+                .start();
+        try {
+            List<Document> cached = this.hotVectorCache.lookup(unitQuery, request.getTopK(),
+                    hasThreshold ? request.getSimilarityThreshold() : Double.NEGATIVE_INFINITY);
+            if (cached != null) {
+                observation.lowCardinalityKeyValue("outcome", "hit");
+                return cached;
+            }
+            observation.lowCardinalityKeyValue("outcome", "miss");
+
+            boolean exact = this.ivfCentroids == null && !prefixes(queryEmbedding.length) && this.embeddingPrecision == EmbeddingPrecision.DOUBLE;
+            List<Document> results = searchWarehouse(queryEmbedding, request);
+            if (!exact) {
+                return results;
+            }
+            // no document outside the results scores above the last one, or above the threshold when it
+            // cut the results short; with neither, the results are the whole corpus
+            double lowestScore = results.size() == request.getTopK()
+                    ? 1.0 - ((Number) results.get(results.size() - 1).getMetadata().get(DISTANCE_METADATA_FIELD_NAME)).doubleValue()
+                    : hasThreshold ? request.getSimilarityThreshold() : -1.0;
+            this.hotVectorCache.admit(unitQuery, results, getUnitEmbeddings(results), lowestScore);
+            return results;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    /**
+     * Unit-length embeddings of the results the hot-vector cache does not hold yet.
+     */
+    private Map<String, float[]> getUnitEmbeddings(List<Document> results) {
+        List<UUID> missing = new ArrayList<>();
+        for (Document document : results) {
+            if (!this.hotVectorCache.contains(document.getId())) {
+                missing.add(UUID.fromString(document.getId()));
+            }
+        }
+        Map<String, float[]> embeddings = new HashMap<>();
+        if (!missing.isEmpty()) {
+            int bucket = YbVectorStoreSql.bucket(missing.size(), MAX_BIND_PARAMETERS);
+            this.metrics.time(YbVectorStoreMetrics.Phase.HOT_CACHE_FILL, () -> scanEmbeddings(this.sql.scanDocIds(bucket),
+                    ps -> bindDocIds(ps, 1, missing, bucket), (docId, embedding) -> embeddings.put(docId, toUnit(embedding))));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Score the corpus against the query in one statement. The query vector is bound inline as a
+     * {@code VALUES} derived table, so no temporary table, DDL or transaction is needed. The query is
+     * normalized up front, which leaves only the stored vector norm to compute in SQL, and with normalized
+     * embeddings not even that: the cosine is the dot product.
+     * <p>
+     * The metadata filter restricts the scored doc_ids before aggregation, the similarity threshold is
+     * applied in {@code HAVING} and topK is bound as the {@code LIMIT}, so only the winners leave the
+     * warehouse.
+     * <p>
+     * With {@code prefixDimensions} configured, the corpus is first scored on that many leading dimensions
+     * only and the full query scores just the {@code prefixCandidates} best documents of that pass; see
+     * {@link #prefixSearch(SearchRequest, int, int)}.
+     * <p>
+     * Mapping the rows is timed apart from the statement: what remains of the query time is recorded as
+     * scoring, which includes fetching the rows.
+     */
+    private List<Document> getDocuments(float[] queryEmbedding, SearchRequest request) {
+        return getDocuments(queryEmbedding, request, this.prefixDimensions, this.prefixCandidates);
+    }
+
+    private List<Document> getDocuments(float[] queryEmbedding, SearchRequest request, int prefixDimensions, int prefixCandidates) {
+        SearchStatement statement = searchStatement(VectorMath.normalize(queryEmbedding), request, prefixDimensions, prefixCandidates);
+
+        long[] mappingNanos = new long[1];
+        long start = System.nanoTime();
+        List<Document> query = jdbcTemplate.query(statement.sql(), statement.parameters(), (rs, rowNum) -> {
+            long mapStart = System.nanoTime();
+            Document document = this.documentRowMapper.mapRow(rs, rowNum);
+            mappingNanos[0] += System.nanoTime() - mapStart;
+            return document;
+        });
+        this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, System.nanoTime() - start - mappingNanos[0]);
+        this.metrics.record(YbVectorStoreMetrics.Phase.ROW_MAPPING, mappingNanos[0]);
+        return query;
+    }
+
+    /**
+     * The warehouse's plan for the statement {@link #similaritySearch(SearchRequest)} runs for the request
+     * against the vector table, one line per element, bound exactly as the search binds it. Use it to check
+     * that scoring aggregates without redistributing rows; see {@link VectorTableDistribution}.
+     *
+     * @throws IllegalStateException with packed embeddings, which are not scored in SQL
+     */
+    public List<String> explainSimilaritySearch(SearchRequest request) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            throw new IllegalStateException("Packed embeddings are scored in the JVM, there is no search statement to explain");
+        }
+        float[] normalizedQuery = VectorMath.normalize(getQueryEmbedding(request.getQuery()));
+        if (reranks()) {
+            int[] probes = getProbes(normalizedQuery);
+            int candidates = Math.max(request.getTopK(), this.rerankCandidates);
+            return this.jdbcTemplate.query("EXPLAIN " + this.sql.rerankCandidates(normalizedQuery.length, getFilterClause(request), probes.length),
+                    ps -> bindRerankCandidates(ps, normalizedQuery, probes, candidates), (rs, rowNum) -> rs.getString(1));
+        }
+        SearchStatement statement = searchStatement(normalizedQuery, request, this.prefixDimensions, this.prefixCandidates);
+        return this.jdbcTemplate.query("EXPLAIN " + statement.sql(), statement.parameters(), (rs, rowNum) -> rs.getString(1));
+    }
+
+    /**
+     * Search in two stages regardless of the configured prefix: score every candidate on the first
+     * {@code prefixDimensions} dimensions of its embedding, then score only the best {@code candidates} of
+     * them, at least topK, on all dimensions. With embeddings from a model trained so that leading
+     * dimensions carry most of the meaning (Matryoshka representation learning), the coarse stage reads a
+     * fraction of the vector rows at little loss of recall. The similarity threshold and the returned
+     * distances use the full-dimension scores. Both stages run in one statement; the caches are not
+     * consulted.
+     *
+     * @param prefixDimensions leading dimensions of the coarse stage; 0 or at least the embedding
+     *                         dimensions search in one stage
+     * @throws IllegalStateException with packed embeddings, which are not stored per dimension
+     */
+    public List<Document> prefixSearch(SearchRequest request, int prefixDimensions, int candidates) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            throw new IllegalStateException("Prefix search needs the exploded embedding layout");
+        }
+        return getDocuments(getQueryEmbedding(request.getQuery()), request, prefixDimensions, candidates);
+    }
+
+    /**
+     * Search for many queries at the cost of one: the queries are embedded in a single call to the
+     * embedding model and scored together in one statement, which reads the vector rows once and keeps
+     * the top-K of each query with a window partitioned by query. Each request keeps its own topK and
+     * similarity threshold; requests with different filters are scored in one statement per filter, and
+     * a statement takes as many queries as fit its bind parameters. With an IVF index, every query of a
+     * statement is scored against the lists probed for any of them.
+     * <p>
+     * The caches and the prefix stage are not consulted. Hybrid and re-ranked searches and packed
+     * embeddings, which are ranked in the JVM, are searched one request at a time. Batched searches are
+     * not observed as vector store queries, but their phases are timed.
+     *
+     * @return the results of each request, in the order of the requests
+     */
+    public List<List<Document>> batchSimilaritySearch(List<SearchRequest> requests) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED || this.searchMode == SearchMode.HYBRID || reranks()) {
+            return requests.stream().map(this::similaritySearch).toList();
+        }
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<float[]> embeddings = this.metrics.time(YbVectorStoreMetrics.Phase.QUERY_EMBEDDING,
+                () -> this.embeddingModel.embed(requests.stream().map(SearchRequest::getQuery).toList()));
+        List<List<Document>> results = new ArrayList<>(requests.size());
+        Map<Filter.Expression, List<Integer>> byFilter = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new ArrayList<>(requests.get(i).getTopK()));
+            byFilter.computeIfAbsent(requests.get(i).getFilterExpression(), filter -> new ArrayList<>()).add(i);
+        }
+        int dimensions = embeddings.get(0).length;
+        int queriesPerStatement = Math.max(1, (MAX_BIND_PARAMETERS - this.ivfLists) / (dimensions + 2));
+        for (List<Integer> group : byFilter.values()) {
+            for (int from = 0; from < group.size(); from += queriesPerStatement) {
+                searchBatch(group.subList(from, Math.min(from + queriesPerStatement, group.size())), requests, embeddings, results);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Score the requests at the given indexes, which share a filter, in one statement and add each result
+     * row to the results of its request.
+     */
+    private void searchBatch(List<Integer> indexes, List<SearchRequest> requests, List<float[]> embeddings,
+                             List<List<Document>> results) {
+        float[][] normalizedQueries = new float[indexes.size()][];
+        SortedSet<Integer> probes = new TreeSet<>();
+        for (int q = 0; q < normalizedQueries.length; q++) {
+            normalizedQueries[q] = VectorMath.normalize(embeddings.get(indexes.get(q)));
+            for (int probe : getProbes(normalizedQueries[q])) {
+                probes.add(probe);
+            }
+        }
+        String selectSQL = this.sql.batchSearch(normalizedQueries.length, normalizedQueries[0].length,
+                getFilterClause(requests.get(indexes.get(0))), probes.size());
+
+        long[] mappingNanos = new long[1];
+        int[] rowNum = new int[1];
+        long start = System.nanoTime();
+        this.jdbcTemplate.query(selectSQL, ps -> {
+            int p = 1;
+            for (float[] normalizedQuery : normalizedQueries) {
+                for (float value : normalizedQuery) {
+                    ps.setFloat(p++, value);
+                }
+            }
+            for (int probe : probes) {
+                ps.setInt(p++, probe);
+            }
+            for (int index : indexes) {
+                SearchRequest request = requests.get(index);
+                if (request.getSimilarityThreshold() > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL) {
+                    ps.setDouble(p++, request.getSimilarityThreshold());
+                } else {
+                    ps.setNull(p++, Types.DOUBLE);
+                }
+                ps.setInt(p++, request.getTopK());
+            }
+        }, rs -> {
+            long mapStart = System.nanoTime();
+            Document document = this.documentRowMapper.mapRow(rs, rowNum[0]++);
+            results.get(indexes.get(rs.getInt(5))).add(document);
+            mappingNanos[0] += System.nanoTime() - mapStart;
+        });
+        this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, System.nanoTime() - start - mappingNanos[0]);
+        this.metrics.record(YbVectorStoreMetrics.Phase.ROW_MAPPING, mappingNanos[0]);
+    }
+
+    /**
+     * Search with the words of the request query as keywords, see {@link #hybridSearch(SearchRequest, String)}.
+     */
+    public List<Document> hybridSearch(SearchRequest request) {
+        return hybridSearch(request, request.getQuery());
+    }
+
+    /**
+     * Rank the documents by vector similarity to the request query and by how many of the keyword terms
+     * their text contains, and return the topK of the two rankings fused with reciprocal-rank fusion, all
+     * in one statement. Exact tokens such as policy codes that embeddings blur are found by the keyword
+     * ranking, while the vector ranking keeps semantically close documents. Each ranking contributes
+     * {@code 1 / (rankConstant + rank)} for its best {@code hybridCandidates} documents, at least topK.
+     * <p>
+     * The metadata filter restricts both rankings, the similarity threshold only the vector ranking.
+     * Results carry their vector distance, 1 for keyword matches that were not vector scored, and their
+     * fused score under {@link #HYBRID_SCORE_METADATA_FIELD_NAME}. Without usable keyword terms this is a
+     * plain vector search. The caches are not consulted.
+     *
+     * @param keywords the text to take keyword terms from, e.g. the query or just the codes it mentions
+     * @throws IllegalStateException with packed embeddings, which are not scored in SQL
+     */
+    public List<Document> hybridSearch(SearchRequest request, String keywords) {
+        if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+            throw new IllegalStateException("Hybrid search needs the exploded embedding layout");
+        }
+        float[] queryEmbedding = getQueryEmbedding(request.getQuery());
+        List<String> terms = KeywordTerms.extract(keywords, MAX_KEYWORD_TERMS);
+        if (terms.isEmpty()) {
+            return getDocuments(queryEmbedding, request);
+        }
+        float[] normalizedQuery = VectorMath.normalize(queryEmbedding);
+        boolean hasThreshold = request.getSimilarityThreshold() > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+        int[] probes = getProbes(normalizedQuery);
+        int termBucket = YbVectorStoreSql.bucket(terms.size(), MAX_KEYWORD_TERMS);
+        int candidates = Math.max(request.getTopK(), this.hybridCandidates);
+        String selectSQL = this.sql.hybridSearch(normalizedQuery.length, hasThreshold, getFilterClause(request), probes.length, termBucket);
+
+        long[] mappingNanos = new long[1];
+        long start = System.nanoTime();
+        List<Document> documents = this.jdbcTemplate.query(selectSQL, ps -> {
+            int p = 1;
+            for (float value : normalizedQuery) {
+                ps.setFloat(p++, value);
+            }
+            for (int probe : probes) {
+                ps.setInt(p++, probe);
+            }
+            if (hasThreshold) {
+                ps.setDouble(p++, request.getSimilarityThreshold());
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < termBucket; i++) {
+                    ps.setString(p++, i < terms.size() ? KeywordTerms.likePattern(terms.get(i)) : null);
+                }
+            }
+            ps.setInt(p++, this.hybridRankConstant);
+            ps.setInt(p++, this.hybridRankConstant);
+            ps.setInt(p++, candidates);
+            ps.setInt(p++, candidates);
+            ps.setInt(p, request.getTopK());
+        }, (rs, rowNum) -> {
+            long mapStart = System.nanoTime();
+            Document document = this.documentRowMapper.mapRow(rs, rowNum);
+            MetadataCodec.add(document.getMetadata(), HYBRID_SCORE_METADATA_FIELD_NAME, rs.getDouble(5));
+            mappingNanos[0] += System.nanoTime() - mapStart;
+            return document;
+        });
+        this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, System.nanoTime() - start - mappingNanos[0]);
+        this.metrics.record(YbVectorStoreMetrics.Phase.ROW_MAPPING, mappingNanos[0]);
+        return documents;
+    }
+
+    /**
+     * Run the search statement of {@link #getDocuments(float[], SearchRequest)} through a forward-only
+     * cursor and emit every result as it is mapped. Scoring is timed until the first row arrives, as the
+     * warehouse ranks the whole top-K before returning any of it.
+     */
+    private void streamDocuments(float[] queryEmbedding, SearchRequest request, FluxSink<Document> sink) {
+        SearchStatement statement = searchStatement(VectorMath.normalize(queryEmbedding), request, this.prefixDimensions, this.prefixCandidates);
+
+        long start = System.nanoTime();
+        long[] mappingNanos = new long[1];
+        int[] rows = new int[1];
+        try {
+            // the driver only honours the fetch size with auto-commit off, so stream inside a transaction
+            this.transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(statement.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                statement.parameters().setValues(ps);
+                return ps;
+            }, (ResultSetExtractor<Void>) rs -> {
+                // stop fetching as soon as the subscriber cancels; closing the cursor drops the remaining rows
+                while (!sink.isCancelled() && rs.next()) {
+                    long mapStart = System.nanoTime();
+                    if (rows[0] == 0) {
+                        this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, mapStart - start);
+                    }
+                    Document document = this.documentRowMapper.mapRow(rs, rows[0]++);
+                    mappingNanos[0] += System.nanoTime() - mapStart;
+                    sink.next(document);
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            sink.error(e);
+            return;
+        }
+        if (rows[0] == 0) {
+            this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, System.nanoTime() - start);
+        }
+        this.metrics.record(YbVectorStoreMetrics.Phase.ROW_MAPPING, mappingNanos[0]);
+        sink.complete();
+    }
+
+    /**
+     * The search statement for the request and its parameters: in two stages when {@code prefixDimensions}
+     * is above zero and below the query dimensions, in one otherwise.
+     *
+     * @param prefixCandidates documents the coarse stage keeps, at least topK
+     */
+    private SearchStatement searchStatement(float[] normalizedQuery, SearchRequest request, int prefixDimensions, int prefixCandidates) {
+        boolean hasThreshold = request.getSimilarityThreshold() > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+        int[] probes = getProbes(normalizedQuery);
+        int prefix = prefixDimensions > 0 && prefixDimensions < normalizedQuery.length ? prefixDimensions : 0;
+        float[] queryPrefix = prefix > 0 ? VectorMath.normalize(Arrays.copyOf(normalizedQuery, prefix)) : null;
+        int candidates = Math.max(request.getTopK(), prefixCandidates);
+        String sql = this.sql.search(normalizedQuery.length, prefix, hasThreshold, getFilterClause(request), probes.length);
+        return new SearchStatement(sql, ps -> {
+            int p = 1;
+            for (float value : normalizedQuery) {
+                ps.setFloat(p++, value);
+            }
+            if (queryPrefix != null) {
+                for (float value : queryPrefix) {
+                    ps.setFloat(p++, value);
+                }
+            }
+            for (int probe : probes) {
+                ps.setInt(p++, probe);
+            }
+            if (queryPrefix != null) {
+                ps.setInt(p++, candidates);
+            }
+            if (hasThreshold) {
+                ps.setDouble(p++, request.getSimilarityThreshold());
+            }
+            ps.setInt(p, request.getTopK());
+        });
+    }
+
+    /**
+     * The request filter converted to a predicate on the content rows {@code v5}, or null without one.
+     */
+    private String getFilterClause(SearchRequest request) {
+        return request.hasFilterExpression() ? this.filterExpressionConverter.convertExpression(request.getFilterExpression()) : null;
+    }
+
+    /**
+     * The {@code ivfProbes} IVF lists closest to the query, or none while no index has been built.
+     */
+    private int[] getProbes(float[] normalizedQuery) {
+        float[][] centroids = this.ivfCentroids;
+        return centroids != null ? KMeans.nearest(centroids, normalizedQuery, this.ivfProbes) : new int[0];
+    }
+
+    /**
+     * Packed embeddings cannot be unnested in Yellowbrick SQL, so they are streamed through a forward-only
+     * cursor and scored in the JVM, keeping only the running top-K. The content rows of the winners are
+     * fetched afterwards in a single query.
+     */
+    private List<Document> searchPackedEmbeddings(float[] queryEmbedding, SearchRequest request) {
+        int topK = request.getTopK();
+        double threshold = request.getSimilarityThreshold();
+        PriorityQueue<ScoredDocId> best = new PriorityQueue<>(topK + 1, Comparator.comparingDouble(ScoredDocId::score));
+        float[] normalizedQuery = VectorMath.normalize(queryEmbedding);
+
+        int[] probes = getProbes(normalizedQuery);
+
+        this.metrics.time(YbVectorStoreMetrics.Phase.EMBEDDING_SCAN, () -> scanEmbeddings(this.sql.scanCandidates(getFilterClause(request), probes.length), ps -> {
+            for (int i = 0; i < probes.length; i++) {
+                ps.setInt(i + 1, probes[i]);
+            }
+        }, (docId, embedding) -> {
+            double score = this.normalizeEmbeddings ? VectorMath.dot(normalizedQuery, embedding) : VectorMath.cosine(normalizedQuery, embedding);
+            if (score < threshold && threshold > SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL) {
+                return;
+            }
+            if (best.size() < topK || score > best.peek().score()) {
+                best.add(new ScoredDocId(docId, score));
+                if (best.size() > topK) {
+                    best.poll();
+                }
+            }
+        }));
+
+        List<ScoredDocId> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(ScoredDocId::score).reversed());
+        return this.metrics.time(YbVectorStoreMetrics.Phase.CONTENT_FETCH, () -> getContent(ranked));
+    }
+
+    /**
+     * Stream the stored embeddings selected by one of the scan statements of {@link YbVectorStoreSql}
+     * through a forward-only cursor, one whole vector per callback. Exploded rows are reassembled per
+     * doc_id.
+     */
+    private void scanEmbeddings(String sql, PreparedStatementSetter parameters, EmbeddingConsumer consumer) {
+        boolean packed = this.sql.scansPacked();
+        ExplodedVectorAssembler assembler = packed ? null : new ExplodedVectorAssembler(consumer);
+
+        // the driver only honours the fetch size with auto-commit off, so scan inside a transaction
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(SCAN_FETCH_SIZE);
+                parameters.setValues(ps);
+                return ps;
+            }, rs -> {
+                if (packed) {
+                    consumer.accept(rs.getString(1), EmbeddingCodec.decode(rs.getString(2)));
+                } else {
+                    assembler.add(rs.getString(1), rs.getInt(2), rs.getFloat(3));
+                }
+            });
+            if (assembler != null) {
+                assembler.finish();
+            }
+        });
+    }
+
+    /**
+     * Build the IVF index: train spherical k-means on a random sample of the stored embeddings, persist
+     * the centroids and file every doc_id under its closest centroid. Searches then only score the
+     * {@code ivfProbes} lists closest to the query, and documents added later are filed on insert.
+     * Rebuild after the corpus has changed substantially; documents added while a build runs may be missed
+     * by searches until the next build.
+     */
+    public void buildIvfIndex() {
+        if (this.ivfLists <= 0) {
+            throw new IllegalStateException("IVF index is disabled; configure ivfLists to enable it");
+        }
+        List<float[]> sample = new ArrayList<>();
+        scanEmbeddings(this.sql.scanSample(this.ivfTrainingSampleSize), ps -> {
+        }, (docId, embedding) -> sample.add(toUnit(embedding)));
+        if (sample.isEmpty()) {
+            // nothing to train on: drop any previous index and keep searching exactly, as before a build
+            this.transactionTemplate.executeWithoutResult(status -> {
+                this.jdbcTemplate.update(this.sql.deleteIvfCentroids());
+                this.jdbcTemplate.update(this.sql.deleteIvfLists());
+            });
+            this.ivfCentroids = null;
+            logger.info("no embeddings to train IVF centroids on in {}, searches stay exact", getTableName());
+            return;
+        }
+        float[][] centroids = KMeans.train(sample, this.ivfLists, this.ivfMaxIterations, this.ivfSeed);
+        logger.info("trained {} IVF centroids on {} sampled embeddings of {}", centroids.length, sample.size(), getTableName());
+
+        List<String> docIds = new ArrayList<>();
+        List<Integer> assignments = new ArrayList<>();
+        scanEmbeddings(this.sql.scanCandidates(null, 0), ps -> {
+        }, (docId, embedding) -> {
+            docIds.add(docId);
+            assignments.add(KMeans.nearest(centroids, toUnit(embedding)));
+        });
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.jdbcTemplate.update(this.sql.deleteIvfCentroids());
+            this.jdbcTemplate.update(this.sql.deleteIvfLists());
+            List<Object[]> centroidRows = new ArrayList<>(centroids.length);
+            for (int c = 0; c < centroids.length; c++) {
+                centroidRows.add(new Object[]{c, EmbeddingCodec.encode(centroids[c])});
+            }
+            this.jdbcTemplate.batchUpdate(this.sql.insertIvfCentroid(), centroidRows);
+            insertIvfAssignments(docIds, assignments.stream().mapToInt(Integer::intValue).toArray());
+        });
+        this.ivfCentroids = centroids;
+        logger.info("filed {} documents of {} into {} IVF lists", docIds.size(), getTableName(), centroids.length);
+    }
+
+    private void insertIvfAssignments(List<String> docIds, int[] centroidIds) {
+        int rowsPerStatement = MAX_BIND_PARAMETERS / 2;
+
+        for (int from = 0; from < docIds.size(); from += rowsPerStatement) {
+            int start = from;
+            int rows = Math.min(rowsPerStatement, docIds.size() - from);
+            String sql = this.sql.insert(getIvfListTableName(), "doc_id, centroid_id", 2, rows, rows == rowsPerStatement);
+
+            this.jdbcTemplate.update(sql, ps -> {
+                int p = 1;
+                for (int i = start; i < start + rows; i++) {
+                    ps.setObject(p++, UUID.fromString(docIds.get(i)));
+                    ps.setInt(p++, centroidIds[i]);
+                }
+            });
+        }
+    }
+
+    private void loadIvfCentroids() {
+        List<float[]> centroids = this.jdbcTemplate.query(this.sql.selectIvfCentroids(),
+                (rs, rowNum) -> EmbeddingCodec.decode(rs.getString(1)));
+        this.ivfCentroids = centroids.isEmpty() ? null : centroids.toArray(new float[0][]);
+        logger.info("loaded {} IVF centroids for {}", centroids.size(), getTableName());
+    }
+
+    /**
+     * Bind the doc_ids from parameter {@code first} on, repeating the last one to fill the bucket, so that
+     * lists of different sizes share one statement.
+     */
+    private static void bindDocIds(PreparedStatement ps, int first, List<UUID> docIds, int bucket) throws SQLException {
+        for (int i = 0; i < bucket; i++) {
+            ps.setObject(first + i, docIds.get(Math.min(i, docIds.size() - 1)));
+        }
+    }
+
+    private float[] toUnit(float[] embedding) {
+        return this.normalizeEmbeddings ? embedding : VectorMath.normalize(embedding);
+    }
+
+    private List<Document> getContent(List<ScoredDocId> ranked) {
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> docIds = ranked.stream().map(scored -> UUID.fromString(scored.docId())).toList();
+        int bucket = YbVectorStoreSql.bucket(docIds.size(), MAX_BIND_PARAMETERS);
+        Map<String, Document> byId = new HashMap<>();
+        this.jdbcTemplate.query(this.sql.selectContent(bucket), ps -> bindDocIds(ps, 1, docIds, bucket), rs -> {
+            String docId = rs.getString(1);
+            byId.put(docId, new Document(docId, rs.getString(2), toMetadata(rs.getString(3))));
+        });
+
+        List<Document> documents = new ArrayList<>(ranked.size());
+        for (ScoredDocId scored : ranked) {
+            Document document = byId.get(scored.docId());
+            if (document != null) {
+                MetadataCodec.add(document.getMetadata(), DISTANCE_METADATA_FIELD_NAME, 1.0 - scored.score());
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    private Map<String, Object> toMetadata(String json) {
+        Timer decode = this.metrics.timer(YbVectorStoreMetrics.Phase.METADATA_DECODE);
+        return this.lazyMetadata ? MetadataCodec.decodeLazily(json, decode) : MetadataCodec.decode(json, decode);
+    }
+
+    private float[] getQueryEmbedding(String query) {
+        float[] embedding = this.queryResultCache != null ? this.queryResultCache.getEmbedding(query) : null;
+        if (embedding == null) {
+            embedding = this.embeddingFlights != null
+                    ? this.embeddingFlights.execute(query.strip().replaceAll("\\s+", " "), () -> embedQuery(query))
+                    : embedQuery(query);
+            if (this.queryResultCache != null) {
+                this.queryResultCache.putEmbedding(query, embedding);
+            }
+        }
+        return embedding;
+    }
+
+    private float[] embedQuery(String query) {
+        return this.metrics.time(YbVectorStoreMetrics.Phase.QUERY_EMBEDDING, () -> this.embeddingModel.embed(query));
+    }
+
+    @Override
+    public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+        //TODO add operationName to what is part of the observation context.  see https://github.com/spring-projects/spring-ai/issues/1204
+        return VectorStoreObservationContext.builder(PROVIDER_NAME, operationName)
+                .withCollectionName(this.vectorTableName)
+                .withSimilarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+
+
+    }
+
+
+    private String getVectorTableName() {
+        return this.vectorTableName;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        logger.info("Initializing YellowBrickVectorStore schema for table: {}", this.getVectorTableName());
+        checkPackedColumnLength();
+
+        if (!this.initializeSchema) {
+            logger.debug("Skipping the schema initialization for the table: {}", this.getTableName());
+        } else {
+            if (this.schemaName != null && !this.schemaName.equalsIgnoreCase("public")) {
+                this.jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + this.schemaName);
+            }
+            if (this.removeExistingVectorStoreTable) {
+                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.getTableName()));
+                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.getContentTableName()));
+                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.getIvfCentroidTableName()));
+                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.getIvfListTableName()));
+                this.jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", this.sql.fullTableName()));
+            }
+
+            String c = this.vectorTableName + "_pk_doc_id";
+
+            this.jdbcTemplate.execute(String.format("  " +
+                            "              CREATE TABLE IF NOT EXISTS %s (\n" +
+                            "                doc_id UUID NOT NULL,\n" +
+                            "                text VARCHAR(60000) NOT NULL,\n" +
+                            "                metadata VARCHAR(1024) NOT NULL,\n" +
+                            "                content_hash CHAR(64) NOT NULL,\n" +
+                            "                source VARCHAR(1024),\n" +
+                            "                CONSTRAINT %s PRIMARY KEY (doc_id))\n" +
+                            "                DISTRIBUTE ON (doc_id) SORT ON (doc_id)"
+                    , this.getContentTableName(), c));
+
+            if (this.embeddingLayout == EmbeddingLayout.PACKED) {
+                this.jdbcTemplate.execute(String.format("  " +
+                                " CREATE TABLE IF NOT EXISTS %s (\n" +
+                                " doc_id UUID NOT NULL,\n" +
+                                " embedding VARCHAR(%d) NOT NULL)\n" +
+                                " %s"
+                        , getTableName(), PACKED_COLUMN_LENGTH, this.vectorTableDistribution.clause()));
+            } else {
+                this.jdbcTemplate.execute(String.format("  " +
+                                " CREATE TABLE IF NOT EXISTS %s (\n" +
+                                " doc_id UUID NOT NULL,\n" +
+                                " embedding_id SMALLINT NOT NULL,\n" +
+                                " embedding %s NOT NULL)\n" +
+                                " %s"
+                        , getTableName(), this.embeddingPrecision.columnType(), this.vectorTableDistribution.clause()));
+            }
+
+            if (this.embeddingPrecision != EmbeddingPrecision.DOUBLE) {
+                this.jdbcTemplate.execute(String.format("  " +
+                                " CREATE TABLE IF NOT EXISTS %s (\n" +
+                                " doc_id UUID NOT NULL,\n" +
+                                " embedding VARCHAR(%d) NOT NULL)\n" +
+                                " %s"
+                        , this.sql.fullTableName(), PACKED_COLUMN_LENGTH, this.vectorTableDistribution.clause()));
+            }
+
+            if (this.ivfLists > 0) {
+                this.jdbcTemplate.execute(String.format("  " +
+                                " CREATE TABLE IF NOT EXISTS %s (\n" +
+                                " centroid_id INTEGER NOT NULL,\n" +
+                                " embedding VARCHAR(%d) NOT NULL)\n" +
+                                " DISTRIBUTE REPLICATE"
+                        , getIvfCentroidTableName(), PACKED_COLUMN_LENGTH));
+                this.jdbcTemplate.execute(String.format("  " +
+                                " CREATE TABLE IF NOT EXISTS %s (\n" +
+                                " doc_id UUID NOT NULL,\n" +
+                                " centroid_id INTEGER NOT NULL)\n" +
+                                " DISTRIBUTE ON (doc_id) SORT ON (centroid_id)"
+                        , getIvfListTableName()));
+            }
+
+        }
+
+        if (this.ivfLists > 0) {
+            loadIvfCentroids();
+        }
+        checkServerSidePrepare();
+    }
+
+    /**
+     * Fail before any table is created or written when packed embeddings of the model's dimensions would not
+     * fit their VARCHAR column: the vectors of the packed layout, the full-precision copies kept for a
+     * quantized precision and the IVF centroids are all stored packed.
+     */
+    private void checkPackedColumnLength() {
+        if (this.embeddingLayout != EmbeddingLayout.PACKED && this.embeddingPrecision == EmbeddingPrecision.DOUBLE && this.ivfLists <= 0) {
+            return;
+        }
+        int dimensions = this.embeddingModel.dimensions();
+        int encodedLength = EmbeddingCodec.encodedLength(dimensions);
+        if (encodedLength > PACKED_COLUMN_LENGTH) {
+            throw new IllegalStateException("Packed embeddings of " + dimensions + " dimensions take " + encodedLength
+                    + " characters, more than the VARCHAR(" + PACKED_COLUMN_LENGTH + ") columns of " + getTableName() + " hold");
+        }
+    }
+
+    /**
+     * Log whether the driver switches repeated statements to server-side prepared statements, which the
+     * statements of {@link YbVectorStoreSql} are built to make the most of. With a {@code prepareThreshold}
+     * of 0 every search is parsed and planned again.
+     */
+    private void checkServerSidePrepare() {
+        Integer prepareThreshold = this.jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                connection.isWrapperFor(PGConnection.class) ? connection.unwrap(PGConnection.class).getPrepareThreshold() : null);
+        if (prepareThreshold == null) {
+            logger.info("not a PostgreSQL driver connection; cannot tell whether statements on {} are prepared server-side", getTableName());
+        } else if (prepareThreshold <= 0) {
+            logger.warn("server-side prepared statements are disabled (prepareThreshold={}); statements on {} are parsed on every execution",
+                    prepareThreshold, getTableName());
+        } else {
+            logger.info("statements on {} are prepared server-side from execution {} on", getTableName(), prepareThreshold);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.embeddingExecutor != null) {
+            this.embeddingExecutor.shutdownNow();
+        }
+    }
+
+    private String getTableName() {
+        return this.sql.tableName();
+    }
+
+
+    private String getContentTableName() {
+        return this.sql.contentTableName();
+    }
+
+    private String getIvfCentroidTableName() {
+        return this.sql.ivfCentroidTableName();
+    }
+
+    private String getIvfListTableName() {
+        return this.sql.ivfListTableName();
+    }
+
+    /**
+     * How {@link #doAdd(List)} writes a batch to the warehouse.
+     */
+    public enum IngestMode {
+
+        /**
+         * Multi-row INSERT statements, as many rows per statement as the bind parameter limit allows.
+         */
+        BATCH,
+
+        /**
+         * One PostgreSQL COPY FROM STDIN stream per table and batch.
+         */
+        COPY
+
+    }
+
+    /**
+     * How embeddings are laid out in the vector table.
+     */
+    public enum EmbeddingLayout {
+
+        /**
+         * One (doc_id, embedding_id, embedding) row per dimension, scored with a join in SQL.
+         */
+        EXPLODED,
+
+        /**
+         * One (doc_id, embedding) row per document holding the whole vector as a packed value, scored by
+         * streaming the table through the JVM.
+         */
+        PACKED
+
+    }
+
+    /**
+     * How {@link #similaritySearch(SearchRequest)} ranks documents.
+     */
+    public enum SearchMode {
+
+        /**
+         * By vector similarity alone.
+         */
+        VECTOR,
+
+        /**
+         * By vector similarity and keyword matches fused, see {@link #hybridSearch(SearchRequest)}.
+         */
+        HYBRID
+
+    }
+
+    /**
+     * The column type of the exploded embedding values. Quantized precisions keep each vector at full
+     * precision as well, packed in a {@code _full} table, for re-ranking and for building the IVF index.
+     */
+    public enum EmbeddingPrecision {
+
+        /**
+         * 8-byte {@code FLOAT} values, scored exactly.
+         */
+        DOUBLE("FLOAT"),
+
+        /**
+         * 4-byte {@code REAL} values; scores differ from exact ones in the seventh digit.
+         */
+        REAL("REAL"),
+
+        /**
+         * Each vector scaled so its largest magnitude is 127 and rounded, stored as {@code SMALLINT}, which
+         * the warehouse compresses to about a byte per value. Scores are cosine similarities of the
+         * rounded vectors.
+         */
+        INT8("SMALLINT");
+
+        private final String columnType;
+
+        EmbeddingPrecision(String columnType) {
+            this.columnType = columnType;
+        }
+
+        String columnType() {
+            return this.columnType;
+        }
+
+    }
+
+    /**
+     * How schema initialization distributes the rows of the vector table across the workers. Only applies
+     * when the table is created; recreate it, e.g. with {@code removeExistingVectorStoreTable}, to change
+     * the distribution of an existing table.
+     */
+    public enum VectorTableDistribution {
+
+        /**
+         * Distributed and sorted on doc_id like the content table, so the rows of a document sit on the
+         * worker holding its content row. Scoring aggregates each document where its rows are stored and
+         * joins the winners to their content without moving rows, and doc_id lookups skip the shards
+         * outside the sorted range.
+         */
+        DOC_ID("DISTRIBUTE ON (doc_id) SORT ON (doc_id)"),
+
+        /**
+         * Rows spread evenly without regard to doc_id, which redistributes them by doc_id on every search
+         * before they can be grouped. Kept for comparison.
+         */
+        RANDOM("DISTRIBUTE RANDOM");
+
+        private final String clause;
+
+        VectorTableDistribution(String clause) {
+            this.clause = clause;
+        }
+
+        String clause() {
+            return this.clause;
+        }
+
+    }
+
+    /**
+     * Which cached vector the hot-vector cache gives up when it is full.
+     */
+    public enum HotCacheEviction {
+
+        /**
+         * The least recently returned document.
+         */
+        LRU,
+
+        /**
+         * The least frequently returned document.
+         */
+        LFU
+
+    }
+
+    /**
+     * Outcome of {@link #sync(String, List)}.
+     *
+     * @param unchanged documents already stored with the same content
+     * @param written new or edited documents embedded and written
+     * @param removed stored documents of the source that were no longer present
+     */
+    public record SyncResult(int unchanged, int written, int removed) {
+    }
+
+    private record ScoredDocId(String docId, double score) {
+    }
+
+    /**
+     * What makes two warehouse searches identical; compares the embedding by value.
+     */
+    private record SearchKey(float[] embedding, int topK, double threshold, Filter.Expression filter) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SearchKey other && Arrays.equals(this.embedding, other.embedding) && this.topK == other.topK
+                    && Double.compare(this.threshold, other.threshold) == 0 && Objects.equals(this.filter, other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(this.topK, this.threshold, this.filter) + Arrays.hashCode(this.embedding);
+        }
+    }
+
+    private record SearchStatement(String sql, PreparedStatementSetter parameters) {
+    }
+
+    @FunctionalInterface
+    private interface EmbeddingConsumer {
+
+        void accept(String docId, float[] embedding);
+
+    }
+
+    /**
+     * Reassembles whole vectors from exploded rows arriving ordered by (doc_id, embedding_id).
+     */
+    private static final class ExplodedVectorAssembler {
+
+        private final EmbeddingConsumer consumer;
+
+        private String docId;
+
+        private float[] values = new float[1024];
+
+        private int dimensions;
+
+        private ExplodedVectorAssembler(EmbeddingConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        void add(String rowDocId, int embeddingId, float embedding) {
+            if (!rowDocId.equals(this.docId)) {
+                finish();
+                this.docId = rowDocId;
+            }
+            if (embeddingId >= this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(embeddingId + 1, this.values.length * 2));
+            }
+            this.values[embeddingId] = embedding;
+            this.dimensions = Math.max(this.dimensions, embeddingId + 1);
+        }
+
+        void finish() {
+            if (this.docId != null) {
+                this.consumer.accept(this.docId, Arrays.copyOf(this.values, this.dimensions));
+                this.docId = null;
+                this.dimensions = 0;
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface CopyRowWriter {
+
+        void write(CopyBuffer buffer) throws SQLException;
+
+    }
+
+    /**
+     * Accumulates rows in COPY text format and flushes them to the stream in chunks.
+     */
+    private static final class CopyBuffer {
+
+        private final CopyIn copyIn;
+
+        private final StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 4096);
+
+        private CopyBuffer(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        CopyBuffer append(String value) {
+            this.rows.append(value);
+            return this;
+        }
+
+        CopyBuffer append(int value) {
+            this.rows.append(value);
+            return this;
+        }
+
+        CopyBuffer append(float value) {
+            this.rows.append(value);
+            return this;
+        }
+
+        /**
+         * Append text escaped for the COPY text format; null becomes {@code \N}.
+         */
+        CopyBuffer appendText(String value) {
+            if (value == null) {
+                this.rows.append("\\N");
+                return this;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '\\' -> this.rows.append("\\\\");
+                    case '\t' -> this.rows.append("\\t");
+                    case '\n' -> this.rows.append("\\n");
+                    case '\r' -> this.rows.append("\\r");
+                    default -> this.rows.append(ch);
+                }
+            }
+            return this;
+        }
+
+        CopyBuffer separator() {
+            this.rows.append('\t');
+            return this;
+        }
+
+        void endRow() throws SQLException {
+            this.rows.append('\n');
+            if (this.rows.length() >= COPY_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (this.rows.length() > 0) {
+                byte[] bytes = this.rows.toString().getBytes(StandardCharsets.UTF_8);
+                this.copyIn.writeToCopy(bytes, 0, bytes.length);
+                this.rows.setLength(0);
+            }
+        }
+
+    }
+
+    public static class Builder {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private final EmbeddingModel embeddingModel;
+
+        private final PlatformTransactionManager transactionManager;
+
+        private String vectorTableName = "vector_store";
+
+        private String schemaName;
+
+        private VectorTableDistribution vectorTableDistribution = VectorTableDistribution.DOC_ID;
+
+        private boolean initializeSchema;
+
+        private boolean removeExistingVectorStoreTable;
+
+        private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+        private VectorStoreObservationConvention searchObservationConvention;
+
+        private BatchingStrategy batchingStrategy = new TokenCountBatchingStrategy();
+
+        private int maxDocumentBatchSize = 10000;
+
+        private IngestMode ingestMode = IngestMode.BATCH;
+
+        private EmbeddingLayout embeddingLayout = EmbeddingLayout.EXPLODED;
+
+        private EmbeddingPrecision embeddingPrecision = EmbeddingPrecision.DOUBLE;
+
+        private int rerankCandidates = 100;
+
+        private int prefixDimensions;
+
+        private int prefixCandidates = 500;
+
+        private boolean normalizeEmbeddings;
+
+        private int ivfLists;
+
+        private int ivfProbes = 8;
+
+        private int ivfTrainingSampleSize = 50000;
+
+        private int ivfMaxIterations = 25;
+
+        private long ivfSeed = DEFAULT_IVF_SEED;
+
+        private long hotCacheMaxBytes;
+
+        private boolean hotCacheOffHeap;
+
+        private HotCacheEviction hotCacheEviction = HotCacheEviction.LFU;
+
+        private int hotCacheAnchors = 256;
+
+        private int queryCacheMaxEntries;
+
+        private Duration queryCacheTtl = Duration.ofMinutes(10);
+
+        private double queryCacheSimilarityThreshold = 0.97;
+
+        private int embeddingConcurrency;
+
+        private int embeddingQueueCapacity;
+
+        private boolean lazyMetadata;
+
+        private MeterRegistry meterRegistry;
+
+        private SearchMode searchMode = SearchMode.VECTOR;
+
+        private boolean coalesceSearches;
+
+        private int hybridRankConstant = 60;
+
+        private int hybridCandidates = 50;
+
+        public Builder(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel, PlatformTransactionManager transactionManager) {
+            if (jdbcTemplate == null || embeddingModel == null || transactionManager == null) {
+                throw new IllegalArgumentException("JdbcTemplate, EmbeddingModel and PlatformTransactionManager must not be null");
+            }
+            this.jdbcTemplate = jdbcTemplate;
+            this.embeddingModel = embeddingModel;
+            this.transactionManager = transactionManager;
+        }
+
+        public Builder withVectorTableName(String vectorTableName) {
+            this.vectorTableName = vectorTableName;
+            return this;
+        }
+
+        /**
+         * Schema holding the tables; created by schema initialization if it does not exist. Without one,
+         * the tables are looked up on the connection's search path.
+         */
+        public Builder withSchemaName(String schemaName) {
+            this.schemaName = schemaName;
+            return this;
+        }
+
+        public Builder withVectorTableDistribution(VectorTableDistribution vectorTableDistribution) {
+            this.vectorTableDistribution = vectorTableDistribution;
+            return this;
+        }
+
+        public Builder withInitializeSchema(boolean initializeSchema) {
+            this.initializeSchema = initializeSchema;
+            return this;
+        }
+
+        /**
+         * Drop the store's tables before the schema is initialized, discarding everything stored. Leave
+         * this off to re-index incrementally across restarts.
+         */
+        public Builder withRemoveExistingVectorStoreTable(boolean removeExistingVectorStoreTable) {
+            this.removeExistingVectorStoreTable = removeExistingVectorStoreTable;
+            return this;
+        }
+
+        public Builder withObservationRegistry(ObservationRegistry observationRegistry) {
+            this.observationRegistry = observationRegistry;
+            return this;
+        }
+
+        public Builder withSearchObservationConvention(VectorStoreObservationConvention searchObservationConvention) {
+            this.searchObservationConvention = searchObservationConvention;
+            return this;
+        }
+
+        public Builder withBatchingStrategy(BatchingStrategy batchingStrategy) {
+            this.batchingStrategy = batchingStrategy;
+            return this;
+        }
+
+        public Builder withMaxDocumentBatchSize(int maxDocumentBatchSize) {
+            this.maxDocumentBatchSize = maxDocumentBatchSize;
+            return this;
+        }
+
+        public Builder withIngestMode(IngestMode ingestMode) {
+            this.ingestMode = ingestMode;
+            return this;
+        }
+
+        public Builder withEmbeddingLayout(EmbeddingLayout embeddingLayout) {
+            this.embeddingLayout = embeddingLayout;
+            return this;
+        }
+
+        /**
+         * Store L2-normalized embeddings and score searches with a dot product. Only switch this on for an
+         * empty table, since vectors written without normalization would be ranked incorrectly.
+         */
+        public Builder withNormalizeEmbeddings(boolean normalizeEmbeddings) {
+            this.normalizeEmbeddings = normalizeEmbeddings;
+            return this;
+        }
+
+        /**
+         * Number of IVF lists (k-means centroids). Zero, the default, disables the index and keeps every
+         * search exact; a common starting point is the square root of the corpus size.
+         */
+        public Builder withIvfLists(int ivfLists) {
+            this.ivfLists = ivfLists;
+            return this;
+        }
+
+        /**
+         * Number of lists closest to the query that a search scores, at least 1; more probes trade latency
+         * for recall.
+         */
+        public Builder withIvfProbes(int ivfProbes) {
+            Assert.isTrue(ivfProbes >= 1, "ivfProbes must be at least 1");
+            this.ivfProbes = ivfProbes;
+            return this;
+        }
+
+        public Builder withIvfTrainingSampleSize(int ivfTrainingSampleSize) {
+            this.ivfTrainingSampleSize = ivfTrainingSampleSize;
+            return this;
+        }
+
+        public Builder withIvfMaxIterations(int ivfMaxIterations) {
+            this.ivfMaxIterations = ivfMaxIterations;
+            return this;
+        }
+
+        /**
+         * Seed of the random draws of k-means++ when the IVF centroids are trained, {@link #DEFAULT_IVF_SEED}
+         * by default. With a fixed seed, training on the same sample yields the same centroids; change it to
+         * train a different set, e.g. when one build ended with poorly balanced lists.
+         */
+        public Builder withIvfSeed(long ivfSeed) {
+            this.ivfSeed = ivfSeed;
+            return this;
+        }
+
+        /**
+         * Memory budget of the hot-vector cache for embeddings. Zero, the default, disables the cache.
+         * Searches with a filter expression always go to the warehouse. The cache only learns from exact
+         * searches, so while an IVF index, a prefix stage or a quantized precision is in use it stays empty.
+         */
+        public Builder withHotCacheMaxBytes(long hotCacheMaxBytes) {
+            this.hotCacheMaxBytes = hotCacheMaxBytes;
+            return this;
+        }
+
+        /**
+         * Keep the cached embeddings in a direct buffer outside the Java heap.
+         */
+        public Builder withHotCacheOffHeap(boolean hotCacheOffHeap) {
+            this.hotCacheOffHeap = hotCacheOffHeap;
+            return this;
+        }
+
+        public Builder withHotCacheEviction(HotCacheEviction hotCacheEviction) {
+            this.hotCacheEviction = hotCacheEviction;
+            return this;
+        }
+
+        /**
+         * Number of recent warehouse answers the cache keeps to prove its coverage of new queries.
+         */
+        public Builder withHotCacheAnchors(int hotCacheAnchors) {
+            this.hotCacheAnchors = hotCacheAnchors;
+            return this;
+        }
+
+        /**
+         * Number of query embeddings and of search results to cache. Zero, the default, disables the
+         * query cache.
+         */
+        public Builder withQueryCacheMaxEntries(int queryCacheMaxEntries) {
+            this.queryCacheMaxEntries = queryCacheMaxEntries;
+            return this;
+        }
+
+        public Builder withQueryCacheTtl(Duration queryCacheTtl) {
+            this.queryCacheTtl = queryCacheTtl;
+            return this;
+        }
+
+        /**
+         * Minimum cosine similarity between two query embeddings for one to reuse the results of the
+         * other. A value above 1 restricts reuse to identical query text.
+         */
+        public Builder withQueryCacheSimilarityThreshold(double queryCacheSimilarityThreshold) {
+            this.queryCacheSimilarityThreshold = queryCacheSimilarityThreshold;
+            return this;
+        }
+
+        /**
+         * Number of threads calling the embedding model concurrently while batches already embedded are
+         * written. Zero, the default, embeds everything before the first write.
+         */
+        public Builder withEmbeddingConcurrency(int embeddingConcurrency) {
+            this.embeddingConcurrency = embeddingConcurrency;
+            return this;
+        }
+
+        /**
+         * Maximum number of embedding batches in flight or waiting to be written. Defaults to twice the
+         * embedding concurrency.
+         */
+        public Builder withEmbeddingQueueCapacity(int embeddingQueueCapacity) {
+            this.embeddingQueueCapacity = embeddingQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Parse the metadata of search results only when a caller first reads it, for callers that use
+         * little more than the text and the distance.
+         */
+        public Builder withLazyMetadata(boolean lazyMetadata) {
+            this.lazyMetadata = lazyMetadata;
+            return this;
+        }
+
+        /**
+         * Registry for the per-phase timers and the ingest counters. Without one they are kept in a
+         * registry of their own that records nothing.
+         */
+        public Builder withMeterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Store the exploded embedding values at a lower precision to cut the rows scanned per search.
+         */
+        public Builder withEmbeddingPrecision(EmbeddingPrecision embeddingPrecision) {
+            this.embeddingPrecision = embeddingPrecision;
+            return this;
+        }
+
+        /**
+         * With a quantized precision, how many of the best documents by quantized score are re-ranked at
+         * full precision, at least topK. 0 returns the quantized ranking and scores. Defaults to 100.
+         */
+        public Builder withRerankCandidates(int rerankCandidates) {
+            this.rerankCandidates = rerankCandidates;
+            return this;
+        }
+
+        /**
+         * Score every search on this many leading dimensions first and only the best
+         * {@code prefixCandidates} documents on all of them; 0, the default, scores all dimensions at once.
+         * Only worthwhile for embedding models trained for truncation, see
+         * {@link YellowBrickVectorStore#prefixSearch(SearchRequest, int, int)}.
+         */
+        public Builder withPrefixDimensions(int prefixDimensions) {
+            this.prefixDimensions = prefixDimensions;
+            return this;
+        }
+
+        /**
+         * How many documents the coarse stage of a prefix search keeps, at least topK. Defaults to 500.
+         */
+        public Builder withPrefixCandidates(int prefixCandidates) {
+            this.prefixCandidates = prefixCandidates;
+            return this;
+        }
+
+        /**
+         * Let concurrent identical searches share one query embedding call and one warehouse query
+         * instead of running their own; each gets its own copy of the results. Defaults to false.
+         */
+        public Builder withCoalesceSearches(boolean coalesceSearches) {
+            this.coalesceSearches = coalesceSearches;
+            return this;
+        }
+
+        public Builder withSearchMode(SearchMode searchMode) {
+            this.searchMode = searchMode;
+            return this;
+        }
+
+        /**
+         * The constant k of reciprocal-rank fusion, damping the weight of the top ranks. Defaults to 60.
+         */
+        public Builder withHybridRankConstant(int hybridRankConstant) {
+            this.hybridRankConstant = hybridRankConstant;
+            return this;
+        }
+
+        /**
+         * How many of the best documents of each ranking a hybrid search fuses, at least topK. Defaults to
+         * 50.
+         */
+        public Builder withHybridCandidates(int hybridCandidates) {
+            this.hybridCandidates = hybridCandidates;
+            return this;
+        }
+
+        public YellowBrickVectorStore build() {
+            return new YellowBrickVectorStore(this);
+        }
+
     }
 }
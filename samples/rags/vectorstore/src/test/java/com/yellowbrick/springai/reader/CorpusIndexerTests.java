@@ -0,0 +1,106 @@
+package com.yellowbrick.springai.reader;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CorpusIndexerTests {
+
+	private final ResourcePatternResolver resolver = mock(ResourcePatternResolver.class);
+
+	private final List<Health> healthWhileSyncing = new ArrayList<>();
+
+	private YellowBrickVectorStore vectorStore;
+
+	private CorpusIndexer indexer;
+
+	private CorpusIndexerHealthIndicator healthIndicator;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.vectorStore = mock(YellowBrickVectorStore.class);
+		this.indexer = new CorpusIndexer(this.vectorStore, 1, 4);
+		this.healthIndicator = new CorpusIndexerHealthIndicator(this.indexer);
+		when(this.vectorStore.findSources(any())).thenReturn(List.of());
+		when(this.vectorStore.sync(anyString(), anyList())).thenAnswer(invocation -> {
+			this.healthWhileSyncing.add(this.healthIndicator.health());
+			List<Document> documents = invocation.getArgument(1);
+			return new YellowBrickVectorStore.SyncResult(0, documents.size(), 0);
+		});
+		when(this.resolver.getResources("corpus/*")).thenReturn(new Resource[]{file("a.txt", "paid leave"), file("b.md", "sick leave")});
+	}
+
+	@Test
+	void firstLoadIsOutOfServiceUntilItCompletes() {
+		assertThat(this.healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+		this.indexer.load(this.resolver, "corpus/*");
+
+		assertThat(this.healthWhileSyncing).extracting(Health::getStatus).containsOnly(Status.OUT_OF_SERVICE);
+		assertThat(this.healthWhileSyncing).extracting(health -> health.getDetails().get("status")).containsOnly(CorpusIndexer.Status.LOADING);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("status", CorpusIndexer.Status.COMPLETED)
+				.containsEntry("filesLoaded", 2)
+				.containsEntry("fileCount", 2)
+				.doesNotContainKey("error");
+	}
+
+	@Test
+	void failedFirstLoadIsDown() throws IOException {
+		when(this.resolver.getResources("corpus/*")).thenThrow(new IOException("corpus/ does not exist"));
+
+		this.indexer.load(this.resolver, "corpus/*");
+
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails()).containsEntry("status", CorpusIndexer.Status.FAILED)
+				.containsEntry("error", "corpus/ does not exist");
+	}
+
+	@Test
+	void reloadOverAnEarlierIndexStaysUpEvenWhenItFails() {
+		when(this.vectorStore.findSources("")).thenReturn(List.of("a.txt"));
+		doAnswer(invocation -> {
+			this.healthWhileSyncing.add(this.healthIndicator.health());
+			throw new IllegalStateException("warehouse unavailable");
+		}).when(this.vectorStore).sync(anyString(), anyList());
+
+		this.indexer.load(this.resolver, "corpus/*");
+
+		assertThat(this.healthWhileSyncing).extracting(Health::getStatus).containsOnly(Status.UP);
+		Health health = this.healthIndicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("status", CorpusIndexer.Status.FAILED)
+				.containsEntry("error", "warehouse unavailable")
+				.containsEntry("filesLoaded", 0);
+	}
+
+	private static Resource file(String fileName, String text) {
+		return new ByteArrayResource(text.getBytes(StandardCharsets.UTF_8)) {
+			@Override
+			public String getFilename() {
+				return fileName;
+			}
+		};
+	}
+}
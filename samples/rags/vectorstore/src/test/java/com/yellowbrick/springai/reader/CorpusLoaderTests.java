@@ -0,0 +1,154 @@
+package com.yellowbrick.springai.reader;
+
+import com.yellowbrick.springai.vectorstore.YellowBrickVectorStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CorpusLoaderTests {
+
+	private final Map<String, List<Document>> synced = new ConcurrentHashMap<>();
+
+	private YellowBrickVectorStore vectorStore;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		this.vectorStore = mock(YellowBrickVectorStore.class);
+		when(this.vectorStore.sync(anyString(), anyList())).thenAnswer(invocation -> {
+			List<Document> documents = invocation.getArgument(1);
+			this.synced.put(invocation.getArgument(0), documents);
+			return new YellowBrickVectorStore.SyncResult(0, documents.size(), 0);
+		});
+		when(this.vectorStore.findSources(any())).thenReturn(List.of());
+		this.executor = Executors.newFixedThreadPool(3);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	void loadsSupportedFilesAndSkipsDuplicateChunks() throws InterruptedException {
+		List<CorpusLoader.FileStats> loaded = new ArrayList<>();
+
+		CorpusLoader.CorpusResult result = loader(1).load(List.of(
+				file("a.txt", "paid leave"), file("b.md", "paid leave"), file("c.md", "holidays"), file("d.csv", "ignored")),
+				loaded::add);
+
+		assertThat(loaded).extracting(CorpusLoader.FileStats::fileName).containsExactlyInAnyOrder("a.txt", "b.md", "c.md");
+		assertThat(this.synced).containsOnlyKeys("a.txt", "b.md", "c.md");
+		assertThat(this.synced.get("c.md")).extracting(Document::getContent).containsExactly("holidays");
+		assertThat(this.synced.get("a.txt")).extracting(Document::getContent).containsExactly("paid leave");
+		assertThat(this.synced.get("b.md")).isEmpty();
+		assertThat(result.chunks()).isEqualTo(3);
+		assertThat(result.duplicateChunks()).isEqualTo(1);
+		assertThat(result.written()).isEqualTo(2);
+	}
+
+	@Test
+	void removesSourcesTheFileNoLongerHas() throws InterruptedException {
+		when(this.vectorStore.findSources("a.pdf")).thenReturn(List.of("a.pdf#page=1", "a.pdf#page=2", "a.pdf.bak"));
+		when(this.vectorStore.findSources("a.txt")).thenReturn(List.of("a.txt", "a.txt#page=9", "a.txt.old"));
+
+		loader(4).load(List.of(file("a.txt", "paid leave")), stats -> {
+		});
+
+		assertThat(this.synced).containsOnlyKeys("a.txt", "a.txt#page=9");
+		assertThat(this.synced.get("a.txt#page=9")).isEmpty();
+	}
+
+	@Test
+	void failsWhenAFileCannotBeRead() {
+		Resource broken = new ByteArrayResource(new byte[] { 1, 2, 3 }) {
+			@Override
+			public String getFilename() {
+				return "broken.pdf";
+			}
+		};
+
+		assertThatIllegalStateException().isThrownBy(() -> loader(1).load(List.of(broken, file("a.txt", "paid leave")), stats -> {
+		})).withMessageContaining("broken.pdf");
+	}
+
+	@Test
+	void failsWhenAReaderThrowsAnError() {
+		Resource broken = new ByteArrayResource(new byte[0]) {
+			@Override
+			public String getFilename() {
+				return "broken.txt";
+			}
+
+			@Override
+			public String getContentAsString(Charset charset) {
+				throw new NoClassDefFoundError("org/apache/fontbox/FontBoxFont");
+			}
+		};
+
+		assertThatIllegalStateException().isThrownBy(() -> loader(1).load(List.of(file("a.txt", "paid leave"), broken), stats -> {
+		})).withMessageContaining("broken.txt").withCauseInstanceOf(NoClassDefFoundError.class);
+	}
+
+	@Test
+	void loadsWhenTheExecutorRunsLaterReadersFirst() throws InterruptedException {
+		// one reader thread taking the most recently submitted file first; every file fills its queue
+		ExecutorService lastInFirstOut = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<>() {
+			@Override
+			public boolean offer(Runnable task) {
+				return offerFirst(task);
+			}
+		});
+		List<String> loaded = new ArrayList<>();
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> new CorpusLoader(this.vectorStore, documents -> documents,
+					ExtractedTextFormatter.defaults(), lastInFirstOut, 1, 1)
+					.load(List.of(file("a.txt", "paid leave"), file("b.txt", "sick leave"), file("c.txt", "holidays")),
+							stats -> loaded.add(stats.fileName())));
+		} finally {
+			lastInFirstOut.shutdownNow();
+		}
+
+		assertThat(loaded).containsExactly("a.txt", "b.txt", "c.txt");
+	}
+
+	private CorpusLoader loader(int queueCapacity) {
+		return new CorpusLoader(this.vectorStore, documents -> documents, ExtractedTextFormatter.defaults(), this.executor, 3, queueCapacity);
+	}
+
+	private static Resource file(String fileName, String text) {
+		return new ByteArrayResource(text.getBytes(StandardCharsets.UTF_8)) {
+			@Override
+			public String getFilename() {
+				return fileName;
+			}
+		};
+	}
+}
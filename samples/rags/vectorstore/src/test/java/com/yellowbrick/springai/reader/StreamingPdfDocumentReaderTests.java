@@ -0,0 +1,103 @@
+package com.yellowbrick.springai.reader;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingPdfDocumentReaderTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void readsPagesInOrderWithMetadata() throws IOException {
+		Path pdf = generatePdf(3, 1);
+		List<Document> pages = new ArrayList<>();
+
+		new StreamingPdfDocumentReader(new FileSystemResource(pdf)).forEachPage(pages::add);
+
+		assertThat(pages).hasSize(3);
+		assertThat(pages.get(1).getContent()).contains("page 2 line 0");
+		assertThat(pages.get(1).getMetadata())
+				.containsEntry(StreamingPdfDocumentReader.METADATA_PAGE_NUMBER, 2)
+				.containsEntry(StreamingPdfDocumentReader.METADATA_PAGE_COUNT, 3)
+				.containsEntry(StreamingPdfDocumentReader.METADATA_FILE_NAME, "generated.pdf");
+	}
+
+	@Test
+	void windowsHoldAtMostTheRequestedNumberOfPages() throws IOException {
+		Path pdf = generatePdf(7, 1);
+		List<Integer> windowSizes = new ArrayList<>();
+
+		new StreamingPdfDocumentReader(new FileSystemResource(pdf)).forEachWindow(3, window -> windowSizes.add(window.size()));
+
+		assertThat(windowSizes).containsExactly(3, 3, 1);
+	}
+
+	@Test
+	void pagesAreHandedOverOneAtATimeWithoutKeepingTheirText() throws IOException {
+		Path pdf = generatePdf(5, 60);
+		StreamingPdfDocumentReader reader = new StreamingPdfDocumentReader(new FileSystemResource(pdf));
+		List<Integer> pageNumbers = new ArrayList<>();
+		AtomicReference<StreamingPdfDocumentReader.PageTextStripper> stripper = new AtomicReference<>();
+
+		try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+			stripper.set(reader.pageTextStripper(5, page -> {
+				int pageNumber = (int) page.getMetadata().get(StreamingPdfDocumentReader.METADATA_PAGE_NUMBER);
+				// the next page is not read before this one is handed over, and this one's text is not kept
+				assertThat(stripper.get().currentPage()).isEqualTo(pageNumber);
+				assertThat(stripper.get().bufferedCharacters()).isZero();
+				pageNumbers.add(pageNumber);
+			}));
+			stripper.get().writeText(document, Writer.nullWriter());
+		}
+
+		assertThat(pageNumbers).containsExactly(1, 2, 3, 4, 5);
+	}
+
+	@Test
+	void decodedStreamsAreCachedInATempFileOnly() {
+		assertThat(StreamingPdfDocumentReader.STREAM_CACHE.useTempFile()).isTrue();
+		assertThat(StreamingPdfDocumentReader.STREAM_CACHE.useMainMemory()).isFalse();
+	}
+
+	private Path generatePdf(int pages, int linesPerPage) throws IOException {
+		Path file = this.tempDir.resolve("generated.pdf");
+		PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+		try (PDDocument document = new PDDocument()) {
+			for (int p = 1; p <= pages; p++) {
+				PDPage page = new PDPage();
+				document.addPage(page);
+				try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+					content.beginText();
+					content.setFont(font, 4);
+					content.setLeading(6);
+					content.newLineAtOffset(20, 760);
+					for (int line = 0; line < linesPerPage; line++) {
+						content.showText("page " + p + " line " + line + " " + "employees accrue paid leave monthly ".repeat(3));
+						content.newLine();
+					}
+					content.endText();
+				}
+			}
+			document.save(file.toFile());
+		}
+		return file;
+	}
+}
@@ -0,0 +1,25 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingCodecTests {
+
+	@Test
+	void packedEmbeddingRoundTrips() {
+		float[] embedding = {0.25f, -1.5f, 3.0e-7f, Float.MAX_VALUE, 0.0f};
+
+		String packed = EmbeddingCodec.encode(embedding);
+
+		assertThat(packed).hasSize(EmbeddingCodec.encodedLength(embedding.length));
+		assertThat(EmbeddingCodec.decode(packed)).containsExactly(embedding);
+	}
+
+	@Test
+	void encodedLengthFitsTheVectorColumn() {
+		assertThat(EmbeddingCodec.encodedLength(1536)).isEqualTo(8192);
+		assertThat(EmbeddingCodec.encodedLength(3072)).isLessThanOrEqualTo(64000);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotVectorCacheTests {
+
+	private static final float[] A = {1.0f, 0.0f};
+
+	private static final float[] B = {0.8f, 0.6f};
+
+	private static final float[] C = {0.0f, 1.0f};
+
+	@Test
+	void servesQueriesCloseToAnEarlierAnswer() {
+		HotVectorCache cache = cacheWithAnswerForA(1024);
+
+		List<Document> results = cache.lookup(VectorMath.normalize(new float[]{0.99f, 0.14f}), 1, Double.NEGATIVE_INFINITY);
+
+		assertThat(results).extracting(Document::getId).containsExactly("a");
+		assertThat(cache.lookup(A, 2, Double.NEGATIVE_INFINITY)).extracting(Document::getId).containsExactly("a", "b");
+	}
+
+	@Test
+	void fallsBackWhenUncachedDocumentsCouldRankHigher() {
+		HotVectorCache cache = cacheWithAnswerForA(1024);
+
+		assertThat(cache.lookup(C, 2, Double.NEGATIVE_INFINITY)).isNull();
+		assertThat(cache.lookup(A, 3, Double.NEGATIVE_INFINITY)).isNull();
+	}
+
+	@Test
+	void thresholdAboveTheBoundIsCovered() {
+		HotVectorCache cache = cacheWithAnswerForA(1024);
+
+		assertThat(cache.lookup(A, 3, 0.85)).extracting(Document::getId).containsExactly("a");
+	}
+
+	@Test
+	void staysWithinMemoryBudgetAndForgetsAnchorsOnRemoval() {
+		HotVectorCache cache = cacheWithAnswerForA(2 * 2 * Float.BYTES);
+		cache.admit(C, List.of(document("c", C)), Map.of("c", C), -1.0);
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.remove(List.of("a", "b", "c"));
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.lookup(A, 1, Double.NEGATIVE_INFINITY)).isNull();
+	}
+
+	private static HotVectorCache cacheWithAnswerForA(long memoryBudgetBytes) {
+		HotVectorCache cache = new HotVectorCache(memoryBudgetBytes, false, YellowBrickVectorStore.HotCacheEviction.LRU, 16);
+		cache.admit(A, List.of(document("a", A), document("b", B)), Map.of("a", A, "b", B), VectorMath.dot(A, B));
+		return cache;
+	}
+
+	private static Document document(String id, float[] query) {
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME, 1.0 - VectorMath.dot(A, query));
+		return new Document(id, "text of " + id, metadata);
+	}
+}
@@ -0,0 +1,374 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link JdbcTemplate} that runs the statements {@link YbVectorStoreSql} builds for the exploded layout
+ * at double precision against tables held in memory, with a transaction manager that undoes a rolled back
+ * transaction. Just enough of a warehouse to test what the store writes, deletes and finds: searches are
+ * scored exactly, without IVF lists or a prefix stage, and take no filter but a single string equality;
+ * any other statement fails.
+ */
+class InMemoryWarehouse extends JdbcTemplate {
+
+	private static final Pattern INSERT = Pattern.compile("INSERT INTO (\\S+) \\(([^)]*)\\) VALUES .*");
+
+	private static final Pattern DELETE = Pattern.compile("DELETE FROM (\\S+)( WHERE doc_id IN \\(.*\\))?");
+
+	private static final Pattern SELECT_HASHES = Pattern.compile("SELECT doc_id, content_hash FROM (\\S+) WHERE doc_id IN \\(.*\\)");
+
+	private static final Pattern SELECT_BY_SOURCE = Pattern.compile("SELECT doc_id FROM (\\S+) WHERE source = \\?");
+
+	private static final Pattern SEARCH_CONTENT = Pattern.compile(".* INNER JOIN (\\S+) v3 ON v4.doc_id = v3.doc_id.*");
+
+	private static final Pattern SEARCH_VECTORS = Pattern.compile(".* INNER JOIN\\s+(\\S+) v2 .*");
+
+	private static final Pattern EQUALITY_FILTER = Pattern.compile(".* v5 WHERE \\(v5\\.metadata::json ->> '([^']+)'\\) = '([^']*)'\\).*");
+
+	private final Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+
+	private final ThreadLocal<Map<String, List<Map<String, Object>>>> transaction = new ThreadLocal<>();
+
+	private final AtomicInteger rowsRead = new AtomicInteger();
+
+	private int searches;
+
+	private int commits;
+
+	private int rollbacks;
+
+	/**
+	 * The rows of a table in the order they were written, each by column name.
+	 */
+	synchronized List<Map<String, Object>> rows(String table) {
+		return List.copyOf(this.tables.getOrDefault(table, List.of()));
+	}
+
+	synchronized int commits() {
+		return this.commits;
+	}
+
+	synchronized int rollbacks() {
+		return this.rollbacks;
+	}
+
+	/**
+	 * Search and batch search statements run so far.
+	 */
+	synchronized int searches() {
+		return this.searches;
+	}
+
+	/**
+	 * Search result rows the store has moved a cursor onto so far.
+	 */
+	int rowsRead() {
+		return this.rowsRead.get();
+	}
+
+	PlatformTransactionManager transactionManager() {
+		return new PlatformTransactionManager() {
+
+			@Override
+			public TransactionStatus getTransaction(TransactionDefinition definition) {
+				if (transaction.get() != null) {
+					return new SimpleTransactionStatus(false);
+				}
+				transaction.set(snapshot());
+				return new SimpleTransactionStatus(true);
+			}
+
+			@Override
+			public void commit(TransactionStatus status) {
+				if (status.isNewTransaction()) {
+					transaction.remove();
+					synchronized (InMemoryWarehouse.this) {
+						commits++;
+					}
+				}
+			}
+
+			@Override
+			public void rollback(TransactionStatus status) {
+				if (status.isNewTransaction()) {
+					restore(transaction.get());
+					transaction.remove();
+				}
+			}
+		};
+	}
+
+	@Override
+	public synchronized int update(String sql, PreparedStatementSetter pss) {
+		List<Object> values = bind(pss);
+		Matcher insert = INSERT.matcher(sql);
+		if (insert.matches()) {
+			String[] columns = insert.group(2).split(", ");
+			List<Map<String, Object>> rows = this.tables.computeIfAbsent(insert.group(1), table -> new ArrayList<>());
+			for (int from = 0; from < values.size(); from += columns.length) {
+				Map<String, Object> row = new LinkedHashMap<>();
+				for (int c = 0; c < columns.length; c++) {
+					row.put(columns[c], values.get(from + c));
+				}
+				rows.add(row);
+			}
+			return values.size() / columns.length;
+		}
+		Matcher delete = DELETE.matcher(sql);
+		if (delete.matches()) {
+			List<Map<String, Object>> rows = this.tables.getOrDefault(delete.group(1), new ArrayList<>());
+			int before = rows.size();
+			Set<Object> docIds = new HashSet<>(values);
+			rows.removeIf(row -> delete.group(2) == null || docIds.contains(row.get("doc_id")));
+			return before - rows.size();
+		}
+		throw new UnsupportedOperationException("Not simulated: " + sql);
+	}
+
+	@Override
+	public synchronized void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) {
+		Matcher hashes = SELECT_HASHES.matcher(sql);
+		List<Object[]> result = new ArrayList<>();
+		if (hashes.matches()) {
+			Set<Object> docIds = new HashSet<>(bind(pss));
+			for (Map<String, Object> row : rows(hashes.group(1))) {
+				if (docIds.contains(row.get("doc_id"))) {
+					result.add(new Object[]{row.get("doc_id").toString(), row.get("content_hash")});
+				}
+			}
+		} else {
+			result = search(sql, bind(pss));
+		}
+		try {
+			ResultSet rs = resultSet(result);
+			while (rs.next()) {
+				rch.processRow(rs);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public synchronized <T> List<T> query(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
+		List<Object[]> rows = search(sql, bind(pss));
+		List<T> results = new ArrayList<>(rows.size());
+		try {
+			ResultSet rs = resultSet(rows);
+			while (rs.next()) {
+				results.add(rowMapper.mapRow(rs, results.size()));
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		return results;
+	}
+
+	@Override
+	public <T> T query(PreparedStatementCreator psc, ResultSetExtractor<T> rse) {
+		String[] sql = new String[1];
+		List<Object> values = new ArrayList<>();
+		Connection connection = (Connection) Proxy.newProxyInstance(InMemoryWarehouse.class.getClassLoader(),
+				new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+					if (!method.getName().equals("prepareStatement")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					sql[0] = (String) args[0];
+					return recorder(values);
+				});
+		List<Object[]> rows;
+		try {
+			psc.createPreparedStatement(connection);
+			synchronized (this) {
+				rows = search(sql[0], values);
+			}
+			ResultSet rs = resultSet(rows);
+			ResultSet counting = (ResultSet) Proxy.newProxyInstance(InMemoryWarehouse.class.getClassLoader(),
+					new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+						Object result = method.invoke(rs, args);
+						if (method.getName().equals("next") && (Boolean) result) {
+							this.rowsRead.incrementAndGet();
+						}
+						return result;
+					});
+			return rse.extractData(counting);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+		Matcher bySource = SELECT_BY_SOURCE.matcher(sql);
+		if (!bySource.matches() || elementType != UUID.class) {
+			throw new UnsupportedOperationException("Not simulated: " + sql);
+		}
+		return (List<T>) rows(bySource.group(1)).stream()
+				.filter(row -> args[0].equals(row.get("source")))
+				.map(row -> row.get("doc_id"))
+				.toList();
+	}
+
+	/**
+	 * The result rows of a search or batch search statement: doc_id, text, metadata and score, and for a
+	 * batch the query index, best first per query.
+	 */
+	private List<Object[]> search(String sql, List<Object> values) {
+		Matcher content = SEARCH_CONTENT.matcher(sql);
+		Matcher vectors = SEARCH_VECTORS.matcher(sql);
+		if (!content.matches() || !vectors.matches() || sql.contains("_ivf_lists") || sql.contains("embedding_id <")) {
+			throw new UnsupportedOperationException("Not simulated: " + sql);
+		}
+		Matcher equality = EQUALITY_FILTER.matcher(sql);
+		if (sql.contains("v5.metadata") && !equality.matches()) {
+			throw new UnsupportedOperationException("Filter not simulated: " + sql);
+		}
+		this.searches++;
+		boolean batch = sql.contains("v4.query_id");
+		int queries = batch ? count(sql, "CAST(? AS INTEGER)") : 1;
+		int dimensions = (count(sql, "CAST(? AS FLOAT)") - (batch ? queries : 0)) / queries;
+
+		Map<Object, float[]> embeddings = new LinkedHashMap<>();
+		for (Map<String, Object> row : rows(vectors.group(1))) {
+			float[] embedding = embeddings.computeIfAbsent(row.get("doc_id"), docId -> new float[dimensions]);
+			embedding[((Number) row.get("embedding_id")).intValue()] = ((Number) row.get("embedding")).floatValue();
+		}
+		Map<Object, Map<String, Object>> documents = new HashMap<>();
+		for (Map<String, Object> row : rows(content.group(1))) {
+			if (!equality.matches() || equality.group(2).equals(MetadataCodec.decode((String) row.get("metadata"), null).get(equality.group(1)))) {
+				documents.put(row.get("doc_id"), row);
+			}
+		}
+
+		List<Object[]> results = new ArrayList<>();
+		int limits = queries * dimensions;
+		for (int q = 0; q < queries; q++) {
+			float[] query = new float[dimensions];
+			for (int i = 0; i < dimensions; i++) {
+				query[i] = (Float) values.get(q * dimensions + i);
+			}
+			Double threshold = batch ? (Double) values.get(limits + 2 * q)
+					: sql.contains("HAVING") ? (Double) values.get(dimensions) : null;
+			int topK = (Integer) values.get(batch ? limits + 2 * q + 1 : values.size() - 1);
+			List<Object[]> scored = new ArrayList<>();
+			for (Map.Entry<Object, float[]> vector : embeddings.entrySet()) {
+				Map<String, Object> document = documents.get(vector.getKey());
+				if (document == null) {
+					continue;
+				}
+				double score = VectorMath.dot(query, vector.getValue());
+				if (sql.contains("NULLIF")) {
+					score /= Math.sqrt(VectorMath.dot(vector.getValue(), vector.getValue()));
+				}
+				if (threshold == null || score >= threshold) {
+					scored.add(batch ? new Object[]{document.get("doc_id").toString(), document.get("text"), document.get("metadata"), score, q}
+							: new Object[]{document.get("doc_id").toString(), document.get("text"), document.get("metadata"), score});
+				}
+			}
+			scored.sort(Comparator.comparingDouble((Object[] row) -> (Double) row[3]).reversed());
+			results.addAll(scored.subList(0, Math.min(topK, scored.size())));
+		}
+		return results;
+	}
+
+	private static int count(String sql, String fragment) {
+		int count = 0;
+		for (int from = sql.indexOf(fragment); from >= 0; from = sql.indexOf(fragment, from + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	private synchronized Map<String, List<Map<String, Object>>> snapshot() {
+		Map<String, List<Map<String, Object>>> snapshot = new HashMap<>();
+		this.tables.forEach((table, rows) -> snapshot.put(table, new ArrayList<>(rows)));
+		return snapshot;
+	}
+
+	private synchronized void restore(Map<String, List<Map<String, Object>>> snapshot) {
+		this.tables.clear();
+		this.tables.putAll(snapshot);
+		this.rollbacks++;
+	}
+
+	/**
+	 * The values the setter binds, by parameter index from 0; parameters bound as null are null.
+	 */
+	static List<Object> bind(PreparedStatementSetter pss) {
+		List<Object> values = new ArrayList<>();
+		try {
+			if (pss != null) {
+				pss.setValues(recorder(values));
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		return values;
+	}
+
+	/**
+	 * A prepared statement that records the values bound to it in {@code values}.
+	 */
+	private static PreparedStatement recorder(List<Object> values) {
+		return (PreparedStatement) Proxy.newProxyInstance(InMemoryWarehouse.class.getClassLoader(),
+				new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+					if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+						while (values.size() < index) {
+							values.add(null);
+						}
+						values.set(index - 1, method.getName().equals("setNull") ? null : args[1]);
+					}
+					return null;
+				});
+	}
+
+	/**
+	 * A forward-only result set over the rows, columns numbered from 1.
+	 */
+	static ResultSet resultSet(List<Object[]> rows) {
+		int[] cursor = {-1};
+		return (ResultSet) Proxy.newProxyInstance(InMemoryWarehouse.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "next" -> ++cursor[0] < rows.size();
+					case "getString" -> {
+						Object value = rows.get(cursor[0])[(Integer) args[0] - 1];
+						yield value != null ? value.toString() : null;
+					}
+					case "getObject" -> rows.get(cursor[0])[(Integer) args[0] - 1];
+					case "getDouble" -> ((Number) rows.get(cursor[0])[(Integer) args[0] - 1]).doubleValue();
+					case "getFloat" -> ((Number) rows.get(cursor[0])[(Integer) args[0] - 1]).floatValue();
+					case "getInt" -> ((Number) rows.get(cursor[0])[(Integer) args[0] - 1]).intValue();
+					case "wasNull" -> false;
+					case "close" -> null;
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+}
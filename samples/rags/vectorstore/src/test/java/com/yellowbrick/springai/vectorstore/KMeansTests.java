@@ -0,0 +1,48 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class KMeansTests {
+
+	@Test
+	void separatesWellSeparatedClusters() {
+		SplittableRandom random = new SplittableRandom(7);
+		List<float[]> vectors = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			vectors.add(VectorMath.normalize(new float[]{1.0f, (float) random.nextDouble(-0.1, 0.1), 0.0f}));
+			vectors.add(VectorMath.normalize(new float[]{0.0f, (float) random.nextDouble(-0.1, 0.1), 1.0f}));
+		}
+
+		float[][] centroids = KMeans.train(vectors, 2, 20, 42);
+
+		assertThat(centroids).hasNumberOfRows(2);
+		int first = KMeans.nearest(centroids, new float[]{1.0f, 0.0f, 0.0f});
+		int second = KMeans.nearest(centroids, new float[]{0.0f, 0.0f, 1.0f});
+		assertThat(first).isNotEqualTo(second);
+		assertThat(VectorMath.norm(centroids[first])).isCloseTo(1.0, offset(1e-6));
+	}
+
+	@Test
+	void nearestCentroidsAreOrderedByScore() {
+		float[][] centroids = {{1.0f, 0.0f}, {0.0f, 1.0f}, {0.8f, 0.6f}, {-1.0f, 0.0f}};
+
+		assertThat(KMeans.nearest(centroids, new float[]{1.0f, 0.0f}, 3)).containsExactly(0, 2, 1);
+		assertThat(KMeans.nearest(centroids, new float[]{1.0f, 0.0f}, 10)).hasSize(4);
+	}
+
+	@Test
+	void capsClustersAtTheNumberOfVectors() {
+		List<float[]> vectors = List.of(new float[]{1.0f, 0.0f}, new float[]{0.0f, 1.0f});
+
+		assertThat(KMeans.train(vectors, 16, 10, 1)).hasNumberOfRows(2);
+		assertThat(KMeans.train(List.of(), 16, 10, 1)).isEmpty();
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordTermsTests {
+
+	@Test
+	void keepsCodesAndDropsCommonAndShortWords() {
+		assertThat(KeywordTerms.extract("What does policy HR-104 say about PTO in Q3?", 16))
+				.containsExactly("policy", "hr-104", "say", "pto", "q3");
+	}
+
+	@Test
+	void termsAreDistinctAndCapped() {
+		assertThat(KeywordTerms.extract("leave Leave LEAVE carryover parental bereavement", 3))
+				.containsExactly("leave", "carryover", "parental");
+	}
+
+	@Test
+	void likePatternsEscapeWildcards() {
+		assertThat(KeywordTerms.likePattern("50%_off")).isEqualTo("%50\\%\\_off%");
+	}
+}
@@ -0,0 +1,53 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetadataCodecTests {
+
+	@Test
+	void encodesKeysInSortedOrder() {
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("source", "handbook.pdf");
+		metadata.put("page_number", 3);
+		metadata.put("authors", List.of("hr"));
+
+		assertThat(MetadataCodec.encode(metadata)).isEqualTo("{\"authors\":[\"hr\"],\"page_number\":3,\"source\":\"handbook.pdf\"}");
+		assertThat(MetadataCodec.decode(MetadataCodec.encode(metadata))).isEqualTo(metadata);
+	}
+
+	@Test
+	void lazyMetadataIsParsedOnlyWhenStoredEntriesAreRead() {
+		Map<String, Object> metadata = MetadataCodec.decodeLazily("not json");
+		MetadataCodec.add(metadata, "distance", 0.25);
+
+		assertThat(metadata.get("distance")).isEqualTo(0.25);
+		assertThatThrownBy(() -> metadata.get("source")).isInstanceOf(UncheckedIOException.class);
+	}
+
+	@Test
+	void lazyMetadataMergesAddedEntries() {
+		Map<String, Object> metadata = MetadataCodec.decodeLazily("{\"source\":\"handbook.pdf\",\"distance\":1.0}");
+		metadata.put("distance", 0.25);
+
+		assertThat(metadata).containsOnly(Map.entry("source", "handbook.pdf"), Map.entry("distance", 0.25));
+		assertThat(new HashMap<>(metadata)).hasSize(2);
+	}
+
+	@Test
+	void lazyMetadataPutReturnsTheStoredValue() {
+		Map<String, Object> metadata = MetadataCodec.decodeLazily("{\"source\":\"handbook.pdf\"}");
+
+		assertThat(metadata.put("source", "faq.md")).isEqualTo("handbook.pdf");
+		assertThat(metadata.put("source", "policy.md")).isEqualTo("faq.md");
+		assertThat(metadata.put("page_number", 3)).isNull();
+		assertThat(metadata).containsOnly(Map.entry("source", "policy.md"), Map.entry("page_number", 3));
+	}
+}
@@ -0,0 +1,66 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTests {
+
+	private static final float[] QUERY = VectorMath.normalize(new float[]{1.0f, 0.1f});
+
+	private static final List<Document> RESULTS = List.of(new Document("id", "text", Map.of("distance", 0.1)));
+
+	@Test
+	void reusesResultsForSameTextAndSimilarEmbeddings() {
+		QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1), 0.99, Clock.systemUTC());
+		cache.putResults("what is the leave policy", QUERY, 4, 0.0, null, RESULTS, cache.generation());
+
+		assertThat(cache.getResults("what is the leave policy", 4, 0.0, null)).extracting(Document::getId).containsExactly("id");
+		assertThat(cache.getResults("what is the leave policy", 5, 0.0, null)).isNull();
+		assertThat(cache.getSimilarResults(VectorMath.normalize(new float[]{1.0f, 0.11f}), 4, 0.0, null)).hasSize(1);
+		assertThat(cache.getSimilarResults(VectorMath.normalize(new float[]{0.1f, 1.0f}), 4, 0.0, null)).isNull();
+	}
+
+	@Test
+	void invalidationDropsResultsButKeepsEmbeddings() {
+		QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1), 0.99, Clock.systemUTC());
+		long generation = cache.generation();
+		cache.putEmbedding("q", QUERY);
+		cache.putResults("q", QUERY, 4, 0.0, null, RESULTS, generation);
+
+		cache.invalidateResults();
+		cache.putResults("q", QUERY, 4, 0.0, null, RESULTS, generation);
+
+		assertThat(cache.getResults("q", 4, 0.0, null)).isNull();
+		assertThat(cache.getEmbedding("q")).isSameAs(QUERY);
+	}
+
+	@Test
+	void expiresAndEvictsEntries() {
+		QueryResultCache expired = new QueryResultCache(10, Duration.ZERO, 0.99, Clock.systemUTC());
+		expired.putEmbedding("q", QUERY);
+		assertThat(expired.getEmbedding("q")).isNull();
+
+		QueryResultCache small = new QueryResultCache(1, Duration.ofMinutes(1), 0.99, Clock.systemUTC());
+		small.putEmbedding("first", QUERY);
+		small.putEmbedding("second", QUERY);
+		assertThat(small.getEmbedding("first")).isNull();
+		assertThat(small.getEmbedding("second")).isNotNull();
+	}
+
+	@Test
+	void returnedDocumentsAreCopies() {
+		QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1), 0.99, Clock.systemUTC());
+		cache.putResults("q", QUERY, 4, 0.0, null, RESULTS, cache.generation());
+
+		cache.getResults("q", 4, 0.0, null).get(0).getMetadata().put("distance", 1.0);
+
+		assertThat(cache.getResults("q", 4, 0.0, null).get(0).getMetadata()).containsEntry("distance", 0.1);
+	}
+}
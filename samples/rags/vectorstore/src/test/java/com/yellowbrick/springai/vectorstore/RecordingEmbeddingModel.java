@@ -0,0 +1,75 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Embeds a text as the sum of a fixed random vector per word and records every text it was asked to
+ * embed. A hook runs before each call, to fail it or to act while the store waits for it.
+ */
+class RecordingEmbeddingModel implements EmbeddingModel {
+
+	private final int dimensions;
+
+	private final List<String> embedded = new ArrayList<>();
+
+	private volatile Consumer<List<String>> beforeCall = texts -> {
+	};
+
+	RecordingEmbeddingModel(int dimensions) {
+		this.dimensions = dimensions;
+	}
+
+	/**
+	 * The texts embedded so far, in the order they were embedded.
+	 */
+	synchronized List<String> embedded() {
+		return List.copyOf(this.embedded);
+	}
+
+	void beforeCall(Consumer<List<String>> beforeCall) {
+		this.beforeCall = beforeCall;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		this.beforeCall.accept(request.getInstructions());
+		synchronized (this) {
+			this.embedded.addAll(request.getInstructions());
+		}
+		List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+		for (String text : request.getInstructions()) {
+			embeddings.add(new Embedding(vectorOf(text), embeddings.size()));
+		}
+		return new EmbeddingResponse(embeddings);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return vectorOf(document.getContent());
+	}
+
+	@Override
+	public int dimensions() {
+		return this.dimensions;
+	}
+
+	float[] vectorOf(String text) {
+		float[] vector = new float[this.dimensions];
+		for (String word : text.split(" ")) {
+			SplittableRandom random = new SplittableRandom(word.hashCode());
+			for (int i = 0; i < vector.length; i++) {
+				vector[i] += (float) (random.nextDouble() * 2.0 - 1.0);
+			}
+		}
+		return vector;
+	}
+}
@@ -0,0 +1,104 @@
+package com.yellowbrick.springai.vectorstore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final YbVectorStoreMetrics metrics = new YbVectorStoreMetrics(this.registry, "vector_store");
+
+	private final SingleFlight<String, String> flights = this.metrics.singleFlight("search", UnaryOperator.identity());
+
+	@Test
+	void concurrentCallsForOneKeyShareOneExecution() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger executions = new AtomicInteger();
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> this.flights.execute("q", () -> {
+			executions.incrementAndGet();
+			started.countDown();
+			await(release);
+			return "results";
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> this.flights.execute("q", () -> {
+			executions.incrementAndGet();
+			return "other";
+		}));
+		while (count("coalesced") == 0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("results");
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("results");
+		assertThat(executions).hasValue(1);
+		assertThat(count("executed")).isEqualTo(1);
+		assertThat(this.flights.execute("q", () -> "fresh")).isEqualTo("fresh");
+		assertThat(count("executed")).isEqualTo(2);
+	}
+
+	@Test
+	void failuresReachTheCallerAndAreNotRemembered() {
+		assertThatThrownBy(() -> this.flights.execute("q", () -> {
+			throw new IllegalStateException("warehouse down");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("warehouse down");
+
+		assertThat(this.flights.execute("q", () -> "results")).isEqualTo("results");
+	}
+
+	@Test
+	void everyWaiterGetsResultsOfItsOwn() throws Exception {
+		SingleFlight<String, List<Document>> searches = this.metrics.singleFlight("documents", QueryResultCache::copy);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<List<Document>> leader = CompletableFuture.supplyAsync(() -> searches.execute("q", () -> {
+			started.countDown();
+			await(release);
+			return new ArrayList<>(List.of(new Document("1", "paid leave", new HashMap<>(Map.of("distance", 0.25)))));
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<List<Document>> follower = CompletableFuture.supplyAsync(() -> searches.execute("q", () -> List.of()));
+		while (this.registry.get(YellowBrickVectorStore.COALESCE_METRIC_NAME).tags("stage", "documents", "outcome", "coalesced").counter().count() == 0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		List<Document> leaderResults = leader.get(5, TimeUnit.SECONDS);
+		leaderResults.get(0).getMetadata().put("distance", 0.9);
+		leaderResults.get(0).getMetadata().put("cited", true);
+		List<Document> followerResults = follower.get(5, TimeUnit.SECONDS);
+
+		assertThat(followerResults).extracting(Document::getId).containsExactly("1");
+		assertThat(followerResults.get(0)).isNotSameAs(leaderResults.get(0));
+		assertThat(followerResults.get(0).getMetadata()).containsOnly(Map.entry("distance", 0.25));
+	}
+
+	private double count(String outcome) {
+		return this.registry.get(YellowBrickVectorStore.COALESCE_METRIC_NAME).tags("stage", "search", "outcome", outcome).counter().count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
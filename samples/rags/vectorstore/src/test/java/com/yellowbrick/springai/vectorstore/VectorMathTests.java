@@ -0,0 +1,28 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorMathTests {
+
+	@Test
+	void int8QuantizationScalesTheLargestMagnitudeTo127() {
+		assertThat(VectorMath.quantizeInt8(new float[]{0.5f, -0.2f, 0.0f, 0.1f})).containsExactly(127, -51, 0, 25);
+		assertThat(VectorMath.quantizeInt8(new float[]{0f, 0f})).containsExactly(0, 0);
+	}
+
+	@Test
+	void int8QuantizationKeepsCosineSimilarity() {
+		float[] query = {0.3f, -0.7f, 0.2f, 0.6f};
+		float[] document = {0.12f, -0.5f, 0.33f, 0.41f};
+		byte[] quantized = VectorMath.quantizeInt8(document);
+		float[] restored = new float[quantized.length];
+		for (int i = 0; i < quantized.length; i++) {
+			restored[i] = quantized[i];
+		}
+
+		assertThat(VectorMath.cosine(query, restored)).isCloseTo(VectorMath.cosine(query, document), within(0.01));
+	}
+}
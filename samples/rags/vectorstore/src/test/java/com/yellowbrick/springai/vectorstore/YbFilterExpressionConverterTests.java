@@ -0,0 +1,45 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YbFilterExpressionConverterTests {
+
+	private final YbFilterExpressionConverter converter = new YbFilterExpressionConverter("v3");
+
+	private final FilterExpressionBuilder b = new FilterExpressionBuilder();
+
+	@Test
+	void stringEqualityComparesExtractedText() {
+		String sql = this.converter.convertExpression(b.eq("country", "BG").build());
+
+		assertThat(sql).isEqualTo("(v3.metadata::json ->> 'country') = 'BG'");
+	}
+
+	@Test
+	void numericComparisonCastsExtractedText() {
+		String sql = this.converter.convertExpression(b.and(b.eq("genre", "drama"), b.gte("year", 2020)).build());
+
+		assertThat(sql).isEqualTo("(v3.metadata::json ->> 'genre') = 'drama' AND " +
+				"CAST(v3.metadata::json ->> 'year' AS DOUBLE PRECISION) >= 2020");
+	}
+
+	@Test
+	void groupsAndListsKeepTheirStructure() {
+		String sql = this.converter.convertExpression(
+				b.and(b.group(b.or(b.eq("source", "handbook"), b.ne("source", "faq"))), b.nin("page_number", 1, 2)).build());
+
+		assertThat(sql).isEqualTo("((v3.metadata::json ->> 'source') = 'handbook' OR (v3.metadata::json ->> 'source') <> 'faq') AND " +
+				"CAST(v3.metadata::json ->> 'page_number' AS DOUBLE PRECISION) NOT IN (1, 2)");
+	}
+
+	@Test
+	void quotesInKeysAndValuesAreEscaped() {
+		String sql = this.converter.convertExpression(b.eq("author", "O'Brien").build());
+
+		assertThat(sql).isEqualTo("(v3.metadata::json ->> 'author') = 'O''Brien'");
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.yellowbrick.springai.vectorstore;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YbVectorStoreMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final YbVectorStoreMetrics metrics = new YbVectorStoreMetrics(this.registry, "vector_store");
+
+	@Test
+	void phasesAreTimedUnderOneNameTaggedWithPhaseAndTable() {
+		this.metrics.record(YbVectorStoreMetrics.Phase.SCORING, TimeUnit.MILLISECONDS.toNanos(5));
+		assertThat(this.metrics.time(YbVectorStoreMetrics.Phase.QUERY_EMBEDDING, () -> "embedded")).isEqualTo("embedded");
+
+		Timer scoring = this.registry.get(YellowBrickVectorStore.PHASE_METRIC_NAME)
+				.tags("phase", "scoring", "db.collection.name", "vector_store", "db.system", YellowBrickVectorStore.PROVIDER_NAME)
+				.timer();
+		assertThat(scoring.count()).isEqualTo(1);
+		assertThat(scoring.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5.0);
+		assertThat(this.registry.get(YellowBrickVectorStore.PHASE_METRIC_NAME).tag("phase", "query_embedding").timer().count()).isEqualTo(1);
+		assertThat(this.registry.get(YellowBrickVectorStore.PHASE_METRIC_NAME).tag("phase", "row_mapping").timer().count()).isZero();
+	}
+
+	@Test
+	void writtenBatchesCountDocumentsAndRowsPerTable() {
+		this.metrics.batchWritten(10, 3840);
+		this.metrics.batchWritten(2, 768);
+
+		assertThat(this.registry.get(YellowBrickVectorStore.INGEST_DOCUMENTS_METRIC_NAME).counter().count()).isEqualTo(12);
+		assertThat(this.registry.get(YellowBrickVectorStore.INGEST_ROWS_METRIC_NAME).tag("table", "content").counter().count()).isEqualTo(12);
+		assertThat(this.registry.get(YellowBrickVectorStore.INGEST_ROWS_METRIC_NAME).tag("table", "vector").counter().count()).isEqualTo(4608);
+		assertThat(this.registry.get(YellowBrickVectorStore.INGEST_BATCH_SIZE_METRIC_NAME).summary().max()).isEqualTo(10);
+	}
+}
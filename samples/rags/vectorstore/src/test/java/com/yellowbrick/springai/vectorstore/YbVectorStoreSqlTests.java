@@ -0,0 +1,107 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YbVectorStoreSqlTests {
+
+	private final YbVectorStoreSql sql = new YbVectorStoreSql("docs", YellowBrickVectorStore.EmbeddingLayout.EXPLODED, true);
+
+	@Test
+	void bucketsRoundUpToPowersOfTwoWithinTheLimit() {
+		assertThat(YbVectorStoreSql.bucket(1, 100)).isEqualTo(1);
+		assertThat(YbVectorStoreSql.bucket(2, 100)).isEqualTo(2);
+		assertThat(YbVectorStoreSql.bucket(3, 100)).isEqualTo(4);
+		assertThat(YbVectorStoreSql.bucket(64, 100)).isEqualTo(64);
+		assertThat(YbVectorStoreSql.bucket(65, 100)).isEqualTo(100);
+	}
+
+	@Test
+	void unfilteredSearchesReuseOneStatementWithBoundProbes() {
+		String search = this.sql.search(3, true, null, 2);
+
+		assertThat(this.sql.search(3, true, null, 2)).isSameAs(search);
+		assertThat(search).contains("(VALUES (0, CAST(? AS FLOAT)), (1, CAST(? AS FLOAT)), (2, CAST(? AS FLOAT)))")
+				.contains("v6.centroid_id IN (?, ?)")
+				.contains("HAVING SUM(v1.embedding * v2.embedding) >= ?")
+				.doesNotContain("NULLIF");
+	}
+
+	@Test
+	void filteredSearchesInlineTheFilter() {
+		String search = this.sql.search(3, false, "v5.metadata LIKE '%x%'", 0);
+
+		assertThat(search).contains("v2.doc_id IN (SELECT v5.doc_id FROM docs_content v5 WHERE v5.metadata LIKE '%x%')")
+				.doesNotContain("HAVING")
+				.doesNotContain("docs_ivf_lists");
+		assertThat(this.sql.search(3, false, "v5.metadata LIKE '%x%'", 0)).isNotSameAs(search);
+	}
+
+	@Test
+	void prefixSearchesScoreCandidatesFromTheLeadingDimensionsFirst() {
+		String prefix = this.sql.search(4, 2, true, null, 0);
+
+		assertThat(this.sql.search(4, 2, true, null, 0)).isSameAs(prefix);
+		assertThat(this.sql.search(4, 0, true, null, 0)).isSameAs(this.sql.search(4, true, null, 0)).isNotEqualTo(prefix);
+		assertThat(prefix).contains("WHERE v2.doc_id IN (SELECT v8.doc_id FROM")
+				.contains("v2.embedding_id < 2")
+				.contains("ORDER BY score DESC LIMIT ?");
+		assertThat(prefix.chars().filter(c -> c == '?').count()).isEqualTo(4 + 2 + 1 + 1 + 1);
+	}
+
+	@Test
+	void batchSearchesRankEachQueryInOneStatement() {
+		String batch = this.sql.batchSearch(2, 3, null, 1);
+
+		assertThat(batch).contains("(VALUES (0, 0, CAST(? AS FLOAT)), (0, 1, CAST(? AS FLOAT)), (0, 2, CAST(? AS FLOAT)), (1, 0, CAST(? AS FLOAT))")
+				.contains("ROW_NUMBER() OVER (PARTITION BY v9.query_id ORDER BY v9.score DESC)")
+				.contains("GROUP BY v1.query_id, v2.doc_id")
+				.contains("v6.centroid_id IN (?)")
+				.contains("WHERE v4.query_rank <= v4.top_k");
+		assertThat(batch.chars().filter(c -> c == '?').count()).isEqualTo(2 * 3 + 1 + 2 * 2);
+	}
+
+	@Test
+	void hybridSearchesFuseBothRankingsInOneStatement() {
+		String hybrid = this.sql.hybridSearch(3, true, null, 0, 2);
+
+		assertThat(this.sql.hybridSearch(3, true, null, 0, 2)).isSameAs(hybrid);
+		assertThat(hybrid).contains("WHERE score >= ?")
+				.contains("CASE WHEN LOWER(v5.text) LIKE ? ESCAPE '\\' THEN 1 ELSE 0 END + CASE WHEN LOWER(v5.text) LIKE ? ESCAPE '\\' THEN 1 ELSE 0 END")
+				.contains("COALESCE(1.0 / (? + v7.vector_rank), 0) + COALESCE(1.0 / (? + v8.keyword_rank), 0) AS rrf_score")
+				.contains("FULL OUTER JOIN")
+				.doesNotContain("docs_ivf_lists");
+		assertThat(hybrid.chars().filter(c -> c == '?').count()).isEqualTo(3 + 1 + 2 * 2 + 2 + 2 + 1);
+	}
+
+	@Test
+	void quantizedTablesRerankFromAndScanTheFullPrecisionTable() {
+		YbVectorStoreSql int8 = new YbVectorStoreSql("docs", YellowBrickVectorStore.EmbeddingLayout.EXPLODED,
+				YellowBrickVectorStore.EmbeddingPrecision.INT8, true);
+
+		assertThat(int8.rerankCandidates(2, null, 0)).contains("NULLIF(SQRT(SUM(v2.embedding * v2.embedding)), 0)")
+				.contains("ORDER BY score DESC LIMIT ?")
+				.contains("INNER JOIN docs_full v7 ON v4.doc_id = v7.doc_id");
+		assertThat(int8.scansPacked()).isTrue();
+		assertThat(int8.scanDocIds(1)).isEqualTo("SELECT v2.doc_id, v2.embedding FROM docs_full v2 WHERE v2.doc_id IN (?)");
+		assertThat(this.sql.scansPacked()).isFalse();
+	}
+
+	@Test
+	void onlyFullInsertsAreCached() {
+		String full = this.sql.insert("docs", "doc_id, embedding", 2, 3, true);
+		String remainder = this.sql.insert("docs", "doc_id, embedding", 2, 2, false);
+
+		assertThat(this.sql.insert("docs", "doc_id, embedding", 2, 3, true)).isSameAs(full)
+				.isEqualTo("INSERT INTO docs (doc_id, embedding) VALUES (?, ?), (?, ?), (?, ?)");
+		assertThat(this.sql.insert("docs", "doc_id, embedding", 2, 2, false)).isNotSameAs(remainder).isEqualTo(remainder);
+	}
+
+	@Test
+	void docIdListsUseOnePlaceholderPerBucketEntry() {
+		assertThat(this.sql.deleteByDocIds("docs", 4)).isEqualTo("DELETE FROM docs WHERE doc_id IN (?, ?, ?, ?)");
+		assertThat(this.sql.scanDocIds(2)).isEqualTo(
+				"SELECT v2.doc_id, v2.embedding_id, v2.embedding FROM docs v2 WHERE v2.doc_id IN (?, ?) ORDER BY v2.doc_id, v2.embedding_id");
+	}
+}
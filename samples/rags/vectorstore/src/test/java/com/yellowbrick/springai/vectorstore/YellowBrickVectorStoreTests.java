@@ -0,0 +1,296 @@
+package com.yellowbrick.springai.vectorstore;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YellowBrickVectorStoreTests {
+
+	private static final int DIMENSIONS = 8;
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String ID_1 = "00000000-0000-0000-0000-000000000001";
+
+	private static final String ID_2 = "00000000-0000-0000-0000-000000000002";
+
+	private static final String ID_3 = "00000000-0000-0000-0000-000000000003";
+
+	private static final String ID_4 = "00000000-0000-0000-0000-000000000004";
+
+	private final InMemoryWarehouse warehouse = new InMemoryWarehouse();
+
+	private final RecordingEmbeddingModel embeddingModel = new RecordingEmbeddingModel(DIMENSIONS);
+
+	@Test
+	void unchangedDocumentsAreNotEmbeddedAgain() {
+		YellowBrickVectorStore store = store().build();
+
+		store.add(List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave")));
+		store.add(List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave")));
+
+		assertThat(this.embeddingModel.embedded()).containsExactly("paid leave", "sick leave");
+		assertThat(texts()).containsExactlyInAnyOrder("paid leave", "sick leave");
+		assertThat(this.warehouse.rows("docs")).hasSize(2 * DIMENSIONS);
+	}
+
+	@Test
+	void changedDocumentsReplaceTheirStoredRows() {
+		YellowBrickVectorStore store = store().build();
+
+		store.add(List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave")));
+		store.add(List.of(document(ID_1, "unpaid leave"), document(ID_2, "sick leave")));
+
+		assertThat(this.embeddingModel.embedded()).containsExactly("paid leave", "sick leave", "unpaid leave");
+		assertThat(texts()).containsExactlyInAnyOrder("unpaid leave", "sick leave");
+		float[] embedding = this.embeddingModel.vectorOf("unpaid leave");
+		assertThat(this.warehouse.rows("docs")).filteredOn(row -> row.get("doc_id").equals(UUID.fromString(ID_1)))
+				.extracting(row -> row.get("embedding"))
+				.containsExactly(embedding[0], embedding[1], embedding[2], embedding[3], embedding[4], embedding[5], embedding[6], embedding[7]);
+	}
+
+	@Test
+	void syncWritesNewChunksAndDeletesVanishedOnes() {
+		YellowBrickVectorStore store = store().build();
+		store.sync("faq.md", List.of(new Document("paid leave")));
+
+		YellowBrickVectorStore.SyncResult first = store.sync("handbook.pdf",
+				List.of(new Document("paid leave"), new Document("sick leave"), new Document("parental leave")));
+		YellowBrickVectorStore.SyncResult second = store.sync("handbook.pdf",
+				List.of(new Document("paid leave"), new Document("sick leave days")));
+
+		assertThat(first).isEqualTo(new YellowBrickVectorStore.SyncResult(0, 3, 0));
+		assertThat(second).isEqualTo(new YellowBrickVectorStore.SyncResult(1, 1, 2));
+		assertThat(this.embeddingModel.embedded())
+				.containsExactly("paid leave", "paid leave", "sick leave", "parental leave", "sick leave days");
+		assertThat(this.warehouse.rows("docs_content")).filteredOn(row -> "handbook.pdf".equals(row.get("source")))
+				.extracting(row -> row.get("text"))
+				.containsExactlyInAnyOrder("paid leave", "sick leave days");
+		assertThat(this.warehouse.rows("docs_content")).filteredOn(row -> "faq.md".equals(row.get("source"))).hasSize(1);
+		assertThat(this.warehouse.rows("docs")).hasSize(3 * DIMENSIONS);
+	}
+
+	@Test
+	void everyBatchIsWrittenInATransactionOfItsOwn() {
+		YellowBrickVectorStore store = store().withMaxDocumentBatchSize(2).build();
+
+		store.add(List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave"), document(ID_3, "parental leave")));
+
+		assertThat(this.warehouse.commits()).isEqualTo(2);
+		assertThat(texts()).hasSize(3);
+	}
+
+	@Test
+	void aFailedEmbeddingCallKeepsTheBatchesAlreadyWritten() {
+		YellowBrickVectorStore store = store().withMaxDocumentBatchSize(1).withEmbeddingConcurrency(1).withEmbeddingQueueCapacity(1).build();
+		List<Document> documents = List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave"), document(ID_3, "parental leave"));
+		this.embeddingModel.beforeCall(texts -> {
+			if (texts.contains("parental leave")) {
+				throw new IllegalStateException("embedding service down");
+			}
+		});
+
+		assertThatThrownBy(() -> store.add(documents)).isInstanceOf(IllegalStateException.class).hasMessage("embedding service down");
+		assertThat(texts()).containsExactlyInAnyOrder("paid leave", "sick leave");
+
+		this.embeddingModel.beforeCall(texts -> {
+		});
+		store.add(documents);
+		store.destroy();
+
+		assertThat(this.embeddingModel.embedded()).containsExactly("paid leave", "sick leave", "parental leave");
+		assertThat(texts()).containsExactlyInAnyOrder("paid leave", "sick leave", "parental leave");
+	}
+
+	@Test
+	void pipelinedIngestEmbedsAheadOfTheWritesWithinTheQueueCapacity() {
+		YellowBrickVectorStore store = store().withMaxDocumentBatchSize(2).withEmbeddingConcurrency(3).withEmbeddingQueueCapacity(2).build();
+		List<Document> documents = IntStream.range(0, 7)
+				.mapToObj(i -> document(new UUID(0, i + 1).toString(), "leave policy " + i))
+				.toList();
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		AtomicInteger started = new AtomicInteger();
+		AtomicInteger mostAhead = new AtomicInteger();
+		this.embeddingModel.beforeCall(texts -> {
+			threads.add(Thread.currentThread().getName());
+			mostAhead.accumulateAndGet(started.incrementAndGet() - texts().size(), Math::max);
+		});
+
+		store.add(documents);
+		store.destroy();
+
+		assertThat(threads).isNotEmpty().allMatch(name -> name.equals("yb-embedding-docs"));
+		// two batches embedding or waiting, and one document waiting for the next write of two
+		assertThat(mostAhead.get()).isLessThanOrEqualTo(3);
+		assertThat(texts()).containsExactlyInAnyOrderElementsOf(documents.stream().map(Document::getContent).toList());
+		assertThat(this.warehouse.rows("docs")).hasSize(7 * DIMENSIONS);
+		assertThat(this.warehouse.commits()).isEqualTo(4);
+	}
+
+	@Test
+	void aDocumentWrittenConcurrentlyIsReplacedNotDuplicated() {
+		YellowBrickVectorStore store = store().build();
+		YellowBrickVectorStore other = store().build();
+		this.embeddingModel.beforeCall(texts -> {
+			// the other add finds the document missing too, and writes it while this one embeds
+			this.embeddingModel.beforeCall(nested -> {
+			});
+			other.add(List.of(document(ID_1, "paid leave")));
+		});
+
+		store.add(List.of(document(ID_1, "paid leave")));
+
+		assertThat(this.embeddingModel.embedded()).containsExactly("paid leave", "paid leave");
+		assertThat(texts()).containsExactly("paid leave");
+		assertThat(this.warehouse.rows("docs")).hasSize(DIMENSIONS);
+	}
+
+	@Test
+	void deleteRemovesEveryRowOfTheDocumentsInOneTransaction() {
+		YellowBrickVectorStore store = store().withQueryCacheMaxEntries(10).build();
+		store.add(List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave"), document(ID_3, "parental leave")));
+		assertThat(store.similaritySearch(SearchRequest.query("paid leave"))).extracting(Document::getId).contains(ID_1);
+		int commits = this.warehouse.commits();
+
+		assertThat(store.delete(List.of(ID_1, ID_2, ID_1))).contains(true);
+		assertThat(store.delete(List.of(ID_3, ID_4))).contains(false);
+
+		assertThat(this.warehouse.commits()).isEqualTo(commits + 2);
+		assertThat(texts()).isEmpty();
+		assertThat(this.warehouse.rows("docs")).isEmpty();
+		assertThat(store.similaritySearch(SearchRequest.query("paid leave"))).isEmpty();
+	}
+
+	@Test
+	void streamedResultsMatchTheSearchAndCancellingStopsReadingRows() {
+		YellowBrickVectorStore store = store().build();
+		store.add(handbook());
+		SearchRequest request = SearchRequest.query("leave").withTopK(5);
+
+		List<Document> searched = store.similaritySearch(request);
+		List<Document> streamed = store.streamSimilaritySearch(request).collectList().block(TIMEOUT);
+
+		assertThat(streamed).extracting(Document::getId).containsExactlyElementsOf(ids(searched));
+		assertThat(streamed).extracting(document -> document.getMetadata().get(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME))
+				.containsExactlyElementsOf(searched.stream().map(document -> document.getMetadata().get(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME)).toList());
+		assertThat(this.warehouse.rowsRead()).isEqualTo(5);
+
+		assertThat(store.streamSimilaritySearch(request).take(1).collectList().block(TIMEOUT))
+				.extracting(Document::getId).containsExactly(searched.get(0).getId());
+		assertThat(this.warehouse.rowsRead()).isEqualTo(5 + 1);
+	}
+
+	@Test
+	void onlyStreamsThatCompleteAreCached() {
+		YellowBrickVectorStore store = store().withQueryCacheMaxEntries(10).build();
+		store.add(handbook());
+		SearchRequest request = SearchRequest.query("leave").withTopK(5);
+
+		store.streamSimilaritySearch(request).take(1).blockLast(TIMEOUT);
+		List<Document> streamed = store.streamSimilaritySearch(request).collectList().block(TIMEOUT);
+		List<Document> cached = store.streamSimilaritySearch(request).collectList().block(TIMEOUT);
+
+		assertThat(this.warehouse.rowsRead()).isEqualTo(1 + 5);
+		assertThat(cached).extracting(Document::getId).containsExactlyElementsOf(ids(streamed));
+	}
+
+	@Test
+	void batchedResultsMatchOneByOneSearches() {
+		// 8 queries of 4000 dimensions fill the bind parameters of one statement
+		RecordingEmbeddingModel embeddingModel = new RecordingEmbeddingModel(4000);
+		YellowBrickVectorStore store = new YellowBrickVectorStore.Builder(this.warehouse, embeddingModel, this.warehouse.transactionManager())
+				.withVectorTableName("docs")
+				.build();
+		List<Document> handbook = new ArrayList<>(handbook());
+		handbook.add(document(new UUID(0, 7).toString(), "leave request portal", "it"));
+		store.add(handbook);
+		FilterExpressionBuilder b = new FilterExpressionBuilder();
+		Filter.Expression hr = b.eq("department", "hr").build();
+		Filter.Expression it = b.eq("department", "it").build();
+		List<SearchRequest> requests = List.of(
+				SearchRequest.query("paid leave").withTopK(3),
+				SearchRequest.query("sick leave").withTopK(2).withFilterExpression(hr),
+				SearchRequest.query("leave").withTopK(7).withSimilarityThreshold(0.3),
+				SearchRequest.query("laptop").withTopK(2).withFilterExpression(it),
+				SearchRequest.query("parental leave").withTopK(1),
+				SearchRequest.query("annual leave").withTopK(4),
+				SearchRequest.query("leave of absence").withTopK(2).withFilterExpression(hr),
+				SearchRequest.query("carry over").withTopK(3).withSimilarityThreshold(0.1),
+				SearchRequest.query("refresh").withTopK(2),
+				SearchRequest.query("portal").withTopK(5),
+				SearchRequest.query("sick").withTopK(3),
+				SearchRequest.query("absence").withTopK(6));
+		int searches = this.warehouse.searches();
+
+		List<List<Document>> batched = store.batchSimilaritySearch(requests);
+
+		// the 9 unfiltered requests take two statements, each filter one
+		assertThat(this.warehouse.searches() - searches).isEqualTo(4);
+		assertThat(batched).hasSameSizeAs(requests);
+		for (int i = 0; i < requests.size(); i++) {
+			List<Document> searched = store.similaritySearch(requests.get(i));
+			assertThat(batched.get(i)).as(requests.get(i).getQuery()).extracting(Document::getId).containsExactlyElementsOf(ids(searched));
+			assertThat(batched.get(i)).extracting(document -> document.getMetadata().get(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME))
+					.containsExactlyElementsOf(searched.stream().map(document -> document.getMetadata().get(YellowBrickVectorStore.DISTANCE_METADATA_FIELD_NAME)).toList());
+		}
+		assertThat(batched.get(3)).extracting(Document::getContent).containsExactlyInAnyOrder("laptop refresh", "leave request portal");
+	}
+
+	@Test
+	void packedEmbeddingsWiderThanTheirColumnFailBeforeTheSchemaIsCreated() {
+		// 12000 dimensions pack into exactly 64000 characters
+		YellowBrickVectorStore store = new YellowBrickVectorStore.Builder(this.warehouse, new RecordingEmbeddingModel(12001), this.warehouse.transactionManager())
+				.withVectorTableName("docs")
+				.withEmbeddingLayout(YellowBrickVectorStore.EmbeddingLayout.PACKED)
+				.withInitializeSchema(true)
+				.build();
+
+		assertThatThrownBy(store::afterPropertiesSet).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("12001 dimensions take 64008 characters");
+		assertThat(this.warehouse.rows("docs")).isEmpty();
+	}
+
+	private YellowBrickVectorStore.Builder store() {
+		return new YellowBrickVectorStore.Builder(this.warehouse, this.embeddingModel, this.warehouse.transactionManager())
+				.withVectorTableName("docs")
+				.withBatchingStrategy(documents -> documents.stream().map(List::of).toList());
+	}
+
+	private List<Object> texts() {
+		return this.warehouse.rows("docs_content").stream().map(row -> row.get("text")).toList();
+	}
+
+	private static List<Document> handbook() {
+		return List.of(document(ID_1, "paid leave"), document(ID_2, "sick leave"), document(ID_3, "parental leave"),
+				document(ID_4, "leave of absence"), document(new UUID(0, 5).toString(), "annual leave carry over"),
+				document(new UUID(0, 6).toString(), "laptop refresh", "it"));
+	}
+
+	private static List<String> ids(List<Document> documents) {
+		return documents.stream().map(Document::getId).toList();
+	}
+
+	private static Document document(String id, String text) {
+		return document(id, text, "hr");
+	}
+
+	private static Document document(String id, String text, String department) {
+		return new Document(id, text, new HashMap<>(Map.of("department", department)));
+	}
+}